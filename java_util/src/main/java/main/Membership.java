@@ -0,0 +1,290 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import main.Validate.CheckArgumentSimple;
+
+/**
+ * <h2>Membership</h2>
+ * The <code>Membership</code> class builds the set membership checks returned by
+ * <code>Validate.isOneOf</code> and <code>Validate.isNoneOf</code>. The representation of the set
+ * is chosen when the check is built, based on the values:
+ * <ul>
+ *    <li>Dense integer ranges are stored in a <code>BitSet</code>.</li>
+ *    <li>Small sparse integer sets are stored in a sorted array and binary searched.</li>
+ *    <li>Large sparse integer sets are stored in an open-addressed primitive table.</li>
+ *    <li>Strings are stored in a table indexed by a minimal perfect hash.</li>
+ * </ul>
+ * Testing a value never allocates. A null value is never valid.
+ * <h3>Responsibilities:</h3>
+ * <ul>
+ *    <li>Choose the representation of a fixed set of values.</li>
+ *    <li>Test values for membership.</li>
+ * </ul>
+ * <h1></h1>
+ *
+ * @author Erik Hoff
+ * @version 1.0
+ * @since 1.0
+ * @see main.Validate
+ */
+final class Membership {
+  private Membership() {
+  }
+
+  /** A range is dense if it spans at most this many bits per value. */
+  private static final int DENSITY = 64;
+  /** Sets up to this size are binary searched instead of hashed. */
+  private static final int SORTED_LIMIT = 16;
+
+  // ------------------------------------
+  // -             Integers             -
+  // ------------------------------------
+  /**
+   * The <code>LongSet</code> interface represents a fixed set of primitive values. Integers are
+   * stored as longs, so the same representations serve both types.
+   */
+  private interface LongSet {
+    boolean contains(long value);
+  }
+
+  static CheckArgumentSimple<Integer> intCheck(int[] values, boolean member) {
+    long[] longs = new long[values.length];
+    for (int i = 0; i < values.length; i++) {
+      longs[i] = values[i];
+    }
+    LongSet set = longSet(longs);
+    return (Integer arg) -> arg != null && set.contains(arg) == member;
+  }
+
+  static CheckArgumentSimple<Long> longCheck(long[] values, boolean member) {
+    LongSet set = longSet(values.clone());
+    return (Long arg) -> arg != null && set.contains(arg) == member;
+  }
+
+  private static LongSet longSet(long[] values) {
+    Arrays.sort(values);
+    int size = 0;
+    for (int i = 0; i < values.length; i++) {
+      if (size == 0 || values[size - 1] != values[i]) {
+        values[size++] = values[i];
+      }
+    }
+    long[] distinct = Arrays.copyOf(values, size);
+    if (size == 0) {
+      return value -> false;
+    }
+
+    long min = distinct[0];
+    long span = distinct[size - 1] - min;
+    if (span >= 0 && span < Integer.MAX_VALUE && span / DENSITY < size) {
+      BitSet bits = new BitSet((int) span + 1);
+      for (long value : distinct) {
+        bits.set((int) (value - min));
+      }
+      long max = distinct[size - 1];
+      return value -> value >= min && value <= max && bits.get((int) (value - min));
+    }
+    if (size <= SORTED_LIMIT) {
+      return value -> Arrays.binarySearch(distinct, value) >= 0;
+    }
+    return new LongTable(distinct);
+  }
+
+  /**
+   * An open-addressed table of primitive values with linear probing. Empty slots hold a value that
+   * is not in the set, so no boxing or separate occupancy array is needed.
+   */
+  private static final class LongTable implements LongSet {
+    private final long[] table;
+    private final int mask;
+    private final long empty;
+
+    private LongTable(long[] distinct) {
+      long candidate = 0;
+      while (Arrays.binarySearch(distinct, candidate) >= 0) {
+        candidate++;
+      }
+      this.empty = candidate;
+
+      int size = Integer.highestOneBit(distinct.length * 2 - 1) << 1;
+      this.table = new long[size];
+      this.mask = size - 1;
+      Arrays.fill(table, empty);
+      for (long value : distinct) {
+        int index = hash(value) & mask;
+        while (table[index] != empty) {
+          index = (index + 1) & mask;
+        }
+        table[index] = value;
+      }
+    }
+
+    @Override
+    public boolean contains(long value) {
+      if (value == empty) {
+        return false;
+      }
+      int index = hash(value) & mask;
+      while (true) {
+        long slot = table[index];
+        if (slot == value) {
+          return true;
+        }
+        if (slot == empty) {
+          return false;
+        }
+        index = (index + 1) & mask;
+      }
+    }
+
+    private static int hash(long value) {
+      long h = value * 0x9E3779B97F4A7C15L;
+      return (int) (h ^ (h >>> 32));
+    }
+  }
+
+  // ------------------------------------
+  // -             Strings              -
+  // ------------------------------------
+  static CheckArgumentSimple<String> stringCheck(String[] values, boolean member) {
+    StringTable set = new StringTable(values);
+    return (String arg) -> arg != null && set.contains(arg) == member;
+  }
+
+  /**
+   * A table of strings indexed by a minimal perfect hash, built with the hash and displace method.
+   * The strings are first hashed into buckets, and for each bucket, largest first, a seed is
+   * searched for that places all its strings in free slots of the table. A lookup mixes the cached
+   * <code>String.hashCode</code> twice, once to find the bucket and once with the seed of the
+   * bucket to find the single slot to compare against, so the characters are only read by the
+   * final <code>equals</code>. No seed can separate strings with equal hash codes, so a bucket
+   * holding such strings places them with a seeded hash of the characters instead, marked by a
+   * negative seed.
+   */
+  private static final class StringTable {
+    private final String[] keys;
+    private final int[] seeds;
+
+    private StringTable(String[] values) {
+      Set<String> distinct = new LinkedHashSet<>();
+      for (String value : values) {
+        if (value == null) {
+          throw new IllegalArgumentException("Illegal argument 'values': null");
+        }
+        distinct.add(value);
+      }
+      int size = distinct.size();
+      this.keys = new String[Math.max(1, size)];
+      this.seeds = new int[Math.max(1, (size + 3) / 4)];
+
+      @SuppressWarnings({"unchecked", "rawtypes"})
+      List<String>[] buckets = new List[seeds.length];
+      for (int i = 0; i < buckets.length; i++) {
+        buckets[i] = new ArrayList<>();
+      }
+      for (String key : distinct) {
+        buckets[index(mix(key.hashCode(), 0), seeds.length)].add(key);
+      }
+
+      Integer[] order = new Integer[buckets.length];
+      for (int i = 0; i < order.length; i++) {
+        order[i] = i;
+      }
+      Arrays.sort(order, Comparator.comparingInt((Integer i) -> buckets[i].size()).reversed());
+
+      for (int bucket : order) {
+        List<String> members = buckets[bucket];
+        if (members.isEmpty()) {
+          break;
+        }
+        boolean collides = hasEqualHashCodes(members);
+        int[] slots = new int[members.size()];
+        int seed = 1;
+        while (!place(members, seed, collides, slots)) {
+          seed++;
+        }
+        seeds[bucket] = collides ? -seed : seed;
+        for (int i = 0; i < members.size(); i++) {
+          keys[slots[i]] = members.get(i);
+        }
+      }
+    }
+
+    private static boolean hasEqualHashCodes(List<String> members) {
+      for (int i = 0; i < members.size(); i++) {
+        for (int j = 0; j < i; j++) {
+          if (members.get(i).hashCode() == members.get(j).hashCode()) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Tries to place all members of a bucket with the given seed. The slots are written to
+     * <code>slots</code> and must be free and distinct.
+     */
+    private boolean place(List<String> members, int seed, boolean collides, int[] slots) {
+      for (int i = 0; i < members.size(); i++) {
+        String member = members.get(i);
+        int hash = collides ? hashChars(member, seed) : mix(member.hashCode(), seed);
+        int slot = index(hash, keys.length);
+        if (keys[slot] != null) {
+          return false;
+        }
+        for (int j = 0; j < i; j++) {
+          if (slots[j] == slot) {
+            return false;
+          }
+        }
+        slots[i] = slot;
+      }
+      return true;
+    }
+
+    private boolean contains(String value) {
+      int hashCode = value.hashCode();
+      int seed = seeds[index(mix(hashCode, 0), seeds.length)];
+      int hash = seed > 0 ? mix(hashCode, seed) : hashChars(value, -seed);
+      return value.equals(keys[index(hash, keys.length)]);
+    }
+
+    /**
+     * Mixes a hash code with a seed, so that different seeds spread the same hash codes
+     * differently.
+     */
+    private static int mix(int hashCode, int seed) {
+      int h = (hashCode ^ (seed * 0x9E3779B9)) * 0x85EBCA6B;
+      return h ^ (h >>> 16);
+    }
+
+    /**
+     * A seeded FNV-1a hash of the characters, finished with a murmur mix. Unlike
+     * <code>String.hashCode</code>, different seeds separate strings with equal hash codes.
+     */
+    private static int hashChars(String value, int seed) {
+      int h = 0x811C9DC5 ^ (seed * 0x9E3779B9);
+      for (int i = 0; i < value.length(); i++) {
+        h = (h ^ value.charAt(i)) * 0x01000193;
+      }
+      h ^= h >>> 16;
+      h *= 0x85EBCA6B;
+      h ^= h >>> 13;
+      return h;
+    }
+
+    /**
+     * Maps a hash to the range [0, length) by its high bits, with a multiply instead of a division.
+     */
+    private static int index(int hash, int length) {
+      return (int) (((hash & 0xFFFFFFFFL) * length) >>> 32);
+    }
+  }
+}
@@ -1,6 +1,10 @@
 package main;
 
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+import main.ValidationPolicy.Mode;
 
 /**
  * <h2>Validate</h2>
@@ -17,7 +21,9 @@ import java.util.Collection;
  * arguments. If the same check is performed on all arguments, the <code>makeCheck</code> method can
  * be used to simplify the creation of the collection checks. The arguments can be passed in as any 
  * type of collection, but the since the first argument is used in the exception message and return,
- * the collection should idealy be ordered.
+ * the collection should idealy be ordered. Checks made with <code>makeCheck</code> report the index
+ * and value of the first invalid argument instead. Whether a check is performed at all is decided
+ * by the {@link ValidationPolicy}, which can turn checks off or sample them, globally or per name.
  * <h3>Responsibilities:</h3>
  * <ul>
  *    <li>Validate arguments.</li>
@@ -53,7 +59,77 @@ public class Validate {
       (String arg) -> !arg.isEmpty() && !arg.isBlank();
   public static final CheckArgumentSimple<String> isNullEmptyOrBlank = 
       (String arg) -> arg == null || arg.isEmpty() || arg.isBlank();
-  
+
+  /**
+   * Constructs a check that accepts the given values. The representation of the values is chosen
+   * when the check is built, a bit set for dense ranges and a sorted array or hash table for 
+   * sparse values, so testing an argument does not allocate.
+   *
+   * @param values the accepted values
+   * @return a check that accepts an argument if it is one of the values
+   */
+  public static CheckArgumentSimple<Integer> isOneOf(int... values) {
+    return Membership.intCheck(values, true);
+  }
+
+  /**
+   * Constructs a check that accepts the given values, see <code>isOneOf(int...)</code>.
+   *
+   * @param values the accepted values
+   * @return a check that accepts an argument if it is one of the values
+   */
+  public static CheckArgumentSimple<Long> isOneOf(long... values) {
+    return Membership.longCheck(values, true);
+  }
+
+  /**
+   * Constructs a check that accepts the given strings. The strings are stored in a table indexed
+   * by a minimal perfect hash, so testing an argument takes a single string comparison.
+   *
+   * @param values the accepted strings, must not be null
+   * @return a check that accepts an argument if it is one of the strings
+   * @throws IllegalArgumentException if any of the strings are null
+   */
+  public static CheckArgumentSimple<String> isOneOf(String... values) 
+      throws IllegalArgumentException {
+    return Membership.stringCheck(values, true);
+  }
+
+  /**
+   * Constructs a check that rejects the given values, see <code>isOneOf(int...)</code>. Null 
+   * arguments are rejected as well.
+   *
+   * @param values the rejected values
+   * @return a check that accepts an argument if it is none of the values
+   */
+  public static CheckArgumentSimple<Integer> isNoneOf(int... values) {
+    return Membership.intCheck(values, false);
+  }
+
+  /**
+   * Constructs a check that rejects the given values, see <code>isOneOf(int...)</code>. Null 
+   * arguments are rejected as well.
+   *
+   * @param values the rejected values
+   * @return a check that accepts an argument if it is none of the values
+   */
+  public static CheckArgumentSimple<Long> isNoneOf(long... values) {
+    return Membership.longCheck(values, false);
+  }
+
+  /**
+   * Constructs a check that rejects the given strings, see <code>isOneOf(String...)</code>. Null 
+   * arguments are rejected as well.
+   *
+   * @param values the rejected strings, must not be null
+   * @return a check that accepts an argument if it is none of the strings
+   * @throws IllegalArgumentException if any of the strings are null
+   */
+  public static CheckArgumentSimple<String> isNoneOf(String... values) 
+      throws IllegalArgumentException {
+    return Membership.stringCheck(values, false);
+  }
+
 
   // ------------------------------------
   // -            Intefaces             -
@@ -64,6 +140,31 @@ public class Validate {
    */
   public interface CheckArgument<T> {
     public boolean test(Collection<T> objects);
+
+    /**
+     * Finds the first invalid object. Checks that can not locate the invalid object return a
+     * failure with the index <code>-1</code> and the first object as value.
+     *
+     * @param objects the objects to test
+     * @return the failure, or null if the objects are valid
+     */
+    public default Failure<T> findFailure(Collection<T> objects) {
+      return test(objects) ? null : new Failure<>(-1, objects.iterator().next());
+    }
+
+    /**
+     * Finds the first invalid object in a sample of the objects, starting at <code>offset</code>
+     * and taking every <code>stride</code>th object. Checks that can not be sampled test all the 
+     * objects.
+     *
+     * @param objects the objects to test
+     * @param offset the index of the first object to test
+     * @param stride the distance between the tested objects
+     * @return the failure, or null if the sampled objects are valid
+     */
+    public default Failure<T> findFailure(Collection<T> objects, int offset, int stride) {
+      return findFailure(objects);
+    }
   }
 
   /**
@@ -74,25 +175,139 @@ public class Validate {
     public boolean test(T object1);
   }
 
+  // ------------------------------------
+  // -             Failures             -
+  // ------------------------------------
+  /**
+   * The <code>Failure</code> class holds the index and value of the first invalid argument. An 
+   * index of <code>-1</code> means that the check could not locate the invalid argument.
+   */
+  public static final class Failure<T> {
+    private final int index;
+    private final T value;
+
+    Failure(int index, T value) {
+      this.index = index;
+      this.value = value;
+    }
+
+    public int getIndex() {
+      return index;
+    }
+
+    public T getValue() {
+      return value;
+    }
+  }
+
   /**
    * Constructs a new CheckArgument of type T from a CheckArgumentSimple of type T. This simplifies
-   * the creation of new CheckArgument objects when the check is the same for all arguments.
+   * the creation of new CheckArgument objects when the check is the same for all arguments. The
+   * returned check locates the first invalid argument in a single pass and supports sampling of 
+   * the elements.
    *
    * @param <T> the type of the argument
    * @param check the check to perform on each argument
    * @return a CheckArgument of type T with the given check
    */
   public static <T> CheckArgument<T> makeCheck(CheckArgumentSimple<T> check) {
-    return (Collection<T> args) ->  {
-      for (T arg : args) {
-        if (!check.test(arg)) {
-          return false;
-        }
+    return new CheckArgument<T>() {
+      @Override
+      public boolean test(Collection<T> args) {
+        return findFailure(args, 0, 1) == null;
+      }
+
+      @Override
+      public Failure<T> findFailure(Collection<T> args) {
+        return findFailure(args, 0, 1);
+      }
+
+      @Override
+      public Failure<T> findFailure(Collection<T> args, int offset, int stride) {
+        return Validate.findFailure(check, args, offset, stride);
       }
-      return true;
     };
   }
 
+  /**
+   * Finds the first invalid argument in a sample of the arguments. Lists with random access are
+   * traversed with an indexed loop, other collections with their iterator.
+   */
+  private static <T> Failure<T> findFailure(
+      CheckArgumentSimple<T> check, Collection<T> arguments, int offset, int stride) {
+    if (arguments instanceof RandomAccess && arguments instanceof List) {
+      List<T> list = (List<T>) arguments;
+      for (int i = offset, size = list.size(); i < size; i += stride) {
+        T argument = list.get(i);
+        if (!check.test(argument)) {
+          return new Failure<>(i, argument);
+        }
+      }
+      return null;
+    }
+    Iterator<T> iterator = arguments.iterator();
+    int skip = offset;
+    for (int i = 0; iterator.hasNext(); i++) {
+      T argument = iterator.next();
+      if (skip-- == 0) {
+        if (!check.test(argument)) {
+          return new Failure<>(i, argument);
+        }
+        skip = stride - 1;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Finds the first invalid argument in a sample of the array.
+   */
+  private static <T> Failure<T> findFailure(
+      CheckArgumentSimple<T> check, T[] arguments, int offset, int stride) {
+    for (int i = offset; i < arguments.length; i += stride) {
+      if (!check.test(arguments[i])) {
+        return new Failure<>(i, arguments[i]);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Finds the first invalid argument according to the given mode. In sampled element mode the 
+   * check is performed on every call, but only on every Nth argument.
+   */
+  private static <T> Failure<T> findFailure(
+      Mode mode, CheckArgument<T> check, Collection<T> arguments) {
+    if (mode == Mode.SAMPLED_ELEMENTS) {
+      return check.findFailure(
+        arguments, ValidationPolicy.elementOffset(), ValidationPolicy.SAMPLE_INTERVAL);
+    }
+    return ValidationPolicy.shouldCheck(mode) ? check.findFailure(arguments) : null;
+  }
+
+  /**
+   * Finds the first invalid argument in the array according to the given mode.
+   */
+  private static <T> Failure<T> findFailure(
+      Mode mode, CheckArgumentSimple<T> check, T[] arguments) {
+    if (mode == Mode.SAMPLED_ELEMENTS) {
+      return findFailure(
+        check, arguments, ValidationPolicy.elementOffset(), ValidationPolicy.SAMPLE_INTERVAL);
+    }
+    return ValidationPolicy.shouldCheck(mode) ? findFailure(check, arguments, 0, 1) : null;
+  }
+
+  /**
+   * Formats the invalid argument of a failure for the exception message.
+   */
+  private static String describe(String name, Failure<?> failure) {
+    String prefix = name == null ? "Illegal argument" : "Illegal argument '" + name + "'";
+    if (failure.getIndex() < 0) {
+      return prefix + ": " + failure.getValue();
+    }
+    return prefix + "[" + failure.getIndex() + "]: " + failure.getValue();
+  }
+
   // ------------------------------------
   // -        Single arguments          -
   // ------------------------------------
@@ -110,7 +325,7 @@ public class Validate {
    */
   public static <T> T that(T argument, CheckArgumentSimple<T> check, String message)
       throws IllegalArgumentException {
-    if (!check.test(argument)) {
+    if (ValidationPolicy.shouldCheck() && !check.test(argument)) {
       throw new IllegalArgumentException(message);
     }
     return argument;
@@ -129,7 +344,10 @@ public class Validate {
    */
   public static <T> T that(T argument, CheckArgumentSimple<T> check) 
       throws IllegalArgumentException {
-    return that(argument, check, "Illegal argument: " + argument);
+    if (ValidationPolicy.shouldCheck() && !check.test(argument)) {
+      throw new IllegalArgumentException("Illegal argument: " + argument);
+    }
+    return argument;
   }
 
   /**
@@ -146,7 +364,10 @@ public class Validate {
    */
   public static <T> T that(T argument, String name, CheckArgumentSimple<T> check)
       throws IllegalArgumentException {
-    return that(argument, check, "Illegal argument '" + name + "': " + argument);
+    if (ValidationPolicy.shouldCheck(name) && !check.test(argument)) {
+      throw new IllegalArgumentException("Illegal argument '" + name + "': " + argument);
+    }
+    return argument;
   }
 
   /**
@@ -165,7 +386,11 @@ public class Validate {
   public static <T> T that(
       T argument, String name, CheckArgumentSimple<T> check, String message)
       throws IllegalArgumentException {
-    return that(argument, check, "Illegal argument '" + name + "': " + argument + " , " + message);
+    if (ValidationPolicy.shouldCheck(name) && !check.test(argument)) {
+      throw new IllegalArgumentException(
+        "Illegal argument '" + name + "': " + argument + " , " + message);
+    }
+    return argument;
   }
 
   // ------------------------------------
@@ -187,7 +412,7 @@ public class Validate {
    */
   public static <T> T that(CheckArgument<T> check, String message, Collection<T> arguments) 
       throws IllegalArgumentException {
-    if (!check.test(arguments)) {
+    if (findFailure(ValidationPolicy.MODE, check, arguments) != null) {
       throw new IllegalArgumentException(message);
     }
     return arguments.iterator().next();
@@ -198,8 +423,10 @@ public class Validate {
    * then the first argument is returned. If the arguments are invalid, an IllegalArgumentException 
    * is thrown with the provided message. The exception will look like this:
    * <p>
-   * <code>Illegal argument: 'arguments[0]''</code>
+   * <code>Illegal argument[index]: 'arguments[index]'</code>
    * </p>
+   * If the check can not locate the invalid argument, the index is omitted and the first argument
+   * is used.
    *
    * @param <T> the type of the arguments
    * @param arguments the arguments to check
@@ -209,7 +436,11 @@ public class Validate {
    */
   public static <T> T that(CheckArgument<T> check, Collection<T> arguments) 
       throws IllegalArgumentException {
-    return that(check, "Illegal argument: " + arguments.iterator().next(), arguments);
+    Failure<T> failure = findFailure(ValidationPolicy.MODE, check, arguments);
+    if (failure != null) {
+      throw new IllegalArgumentException(describe(null, failure));
+    }
+    return arguments.iterator().next();
   }
 
   /**
@@ -217,8 +448,10 @@ public class Validate {
    * then the first argument is returned. If the arguments are invalid, an IllegalArgumentException 
    * is thrown with the provided message. The exception will look like this:
    * <p>
-   * <code>Illegal argument 'name': 'arguments[0]'</code>
+   * <code>Illegal argument 'name'[index]: 'arguments[index]'</code>
    * </p>
+   * If the check can not locate the invalid argument, the index is omitted and the first argument
+   * is used.
    *
    * @param <T> the type of the arguments
    * @param arguments the arguments to check
@@ -229,8 +462,11 @@ public class Validate {
    */
   public static <T> T that(String name, CheckArgument<T> check, Collection<T> arguments) 
       throws IllegalArgumentException {
-    return that(
-      check, "Illegal argument '" + name + "': " + arguments.iterator().next(), arguments);
+    Failure<T> failure = findFailure(ValidationPolicy.modeFor(name), check, arguments);
+    if (failure != null) {
+      throw new IllegalArgumentException(describe(name, failure));
+    }
+    return arguments.iterator().next();
   }
 
   /**
@@ -238,8 +474,10 @@ public class Validate {
    * then the first argument is returned. If the arguments are invalid, an IllegalArgumentException 
    * is thrown with the provided message. The exception will look like this:
    * <p>
-   * <code>Illegal argument 'name': 'arguments[0]' , 'message'</code>
+   * <code>Illegal argument 'name'[index]: 'arguments[index]' , 'message'</code>
    * </p>
+   * If the check can not locate the invalid argument, the index is omitted and the first argument
+   * is used.
    *
    * @param <T> the type of the arguments
    * @param arguments the arguments to check
@@ -252,11 +490,62 @@ public class Validate {
   public static <T> T that(
       String name, CheckArgument<T> check, String message, Collection<T> arguments)
       throws IllegalArgumentException {
-    return 
-      that(
-        check, 
-        "Illegal argument '" + name + "': " + arguments.iterator().next() + " , " + message, 
-        arguments
-      );
+    Failure<T> failure = findFailure(ValidationPolicy.modeFor(name), check, arguments);
+    if (failure != null) {
+      throw new IllegalArgumentException(describe(name, failure) + " , " + message);
+    }
+    return arguments.iterator().next();
+  }
+
+  // ------------------------------------
+  // -         Array arguments          -
+  // ------------------------------------
+  /**
+   * Checks if all the arguments in the array are valid according to the given check. The array is
+   * traversed with an indexed loop. If the arguments are valid then the first argument is 
+   * returned. If the arguments are invalid, an IllegalArgumentException is thrown. The exception 
+   * will look like this:
+   * <p>
+   * <code>Illegal argument[index]: 'arguments[index]'</code>
+   * </p>
+   *
+   * @param <T> the type of the arguments
+   * @param check the check to perform on each argument
+   * @param arguments the arguments to check
+   * @return the first argument if all arguments are all valid
+   * @throws IllegalArgumentException if any of the arguments are invalid
+   */
+  public static <T> T that(CheckArgumentSimple<T> check, T[] arguments)
+      throws IllegalArgumentException {
+    Failure<T> failure = findFailure(ValidationPolicy.MODE, check, arguments);
+    if (failure != null) {
+      throw new IllegalArgumentException(describe(null, failure));
+    }
+    return arguments[0];
+  }
+
+  /**
+   * Checks if all the arguments in the array are valid according to the given check. The array is
+   * traversed with an indexed loop. If the arguments are valid then the first argument is 
+   * returned. If the arguments are invalid, an IllegalArgumentException is thrown. The exception 
+   * will look like this:
+   * <p>
+   * <code>Illegal argument 'name'[index]: 'arguments[index]'</code>
+   * </p>
+   *
+   * @param <T> the type of the arguments
+   * @param name the name of the arguments, used in the exception message
+   * @param check the check to perform on each argument
+   * @param arguments the arguments to check
+   * @return the first argument if all arguments are all valid
+   * @throws IllegalArgumentException if any of the arguments are invalid
+   */
+  public static <T> T that(String name, CheckArgumentSimple<T> check, T[] arguments)
+      throws IllegalArgumentException {
+    Failure<T> failure = findFailure(ValidationPolicy.modeFor(name), check, arguments);
+    if (failure != null) {
+      throw new IllegalArgumentException(describe(name, failure));
+    }
+    return arguments[0];
   }
 }
@@ -0,0 +1,264 @@
+package main;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * <h2>ValidationPolicy</h2>
+ * The <code>ValidationPolicy</code> class decides whether a call to <code>Validate.that</code>
+ * actually performs its check. The policy is read from system properties once, when the class is
+ * loaded, and stored in <code>static final</code> fields so the JIT can fold disabled checks away.
+ * The following properties are supported:
+ * <ul>
+ *    <li><code>validate.mode</code> - the global mode, one of <code>always</code> (default),
+ *        <code>sampled</code>, <code>sampled_elements</code> or <code>off</code>.</li>
+ *    <li><code>validate.sample.interval</code> - check on average every Nth call, or every Nth element in
+ *        <code>sampled_elements</code> mode (default 16).</li>
+ *    <li><code>validate.sample.fraction</code> - if set to a value in (0, 1], check a random
+ *        fraction of the calls instead of every Nth call.</li>
+ *    <li><code>validate.mode.&lt;name&gt;</code> - overrides the mode for checks performed with the
+ *        given <code>name</code> argument.</li>
+ * </ul>
+ * An invalid property value is reported on <code>System.err</code> and replaced by its default, so
+ * a typo never prevents the class from loading.
+ * <h3>Responsibilities:</h3>
+ * <ul>
+ *    <li>Decide if a check should be performed.</li>
+ *    <li>Resolve per-name overrides.</li>
+ * </ul>
+ * <h1></h1>
+ *
+ * @author Erik Hoff
+ * @version 1.0
+ * @since 1.0
+ * @see main.Validate
+ */
+public final class ValidationPolicy {
+  private ValidationPolicy() {
+  }
+
+  /**
+   * The <code>Mode</code> enum represents how often checks are performed.
+   */
+  public enum Mode {
+    /** Every check is performed. */
+    ALWAYS,
+    /** Every Nth check, or a random fraction of the checks, is performed. */
+    SAMPLED,
+    /** Like <code>SAMPLED</code>, but collection checks test every Nth element on every call. */
+    SAMPLED_ELEMENTS,
+    /** No checks are performed. */
+    OFF;
+
+    /**
+     * Parses a mode from its name, ignoring case.
+     *
+     * @param value the name of the mode, may be null
+     * @param fallback the mode to return if the value is null
+     * @return the parsed mode
+     * @throws IllegalArgumentException if the value is not the name of a mode
+     */
+    public static Mode parse(String value, Mode fallback) throws IllegalArgumentException {
+      if (value == null) {
+        return fallback;
+      }
+      return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+  }
+
+  // ------------------------------------
+  // -            Properties            -
+  // ------------------------------------
+  public static final String MODE_PROPERTY = "validate.mode";
+  public static final String INTERVAL_PROPERTY = "validate.sample.interval";
+  public static final String FRACTION_PROPERTY = "validate.sample.fraction";
+
+  public static final Mode MODE = readMode(System.getProperties(), MODE_PROPERTY);
+  public static final int SAMPLE_INTERVAL = readInterval(System.getProperties());
+  public static final double SAMPLE_FRACTION = readFraction(System.getProperties());
+
+  private static final Map<String, Mode> OVERRIDES = readOverrides(System.getProperties());
+  private static final boolean HAS_OVERRIDES = !OVERRIDES.isEmpty();
+
+  private static final ThreadLocal<long[]> COUNTDOWN =
+      ThreadLocal.withInitial(() -> new long[] { nextCountdown() });
+
+  // ------------------------------------
+  // -             Decisions            -
+  // ------------------------------------
+  /**
+   * Returns the mode used for checks performed with the given name. If no override is set for the
+   * name, the global mode is returned.
+   *
+   * @param name the name of the argument, may be null
+   * @return the mode for the name
+   */
+  public static Mode modeFor(String name) {
+    if (HAS_OVERRIDES && name != null) {
+      Mode mode = OVERRIDES.get(name);
+      if (mode != null) {
+        return mode;
+      }
+    }
+    return MODE;
+  }
+
+  /**
+   * Returns true if a check without a name should be performed according to the global mode.
+   *
+   * @return true if the check should be performed
+   */
+  public static boolean shouldCheck() {
+    return shouldCheck(MODE);
+  }
+
+  /**
+   * Returns true if a check with the given name should be performed.
+   *
+   * @param name the name of the argument
+   * @return true if the check should be performed
+   */
+  public static boolean shouldCheck(String name) {
+    return shouldCheck(modeFor(name));
+  }
+
+  /**
+   * Returns true if a check should be performed according to the given mode. Sampled modes advance
+   * a thread-local countdown or draw from <code>ThreadLocalRandom</code>, so no state is shared
+   * between threads. The countdown restarts at a random length averaging
+   * <code>SAMPLE_INTERVAL</code>, so call sites that run in lockstep, such as two checks in the same
+   * loop, are all sampled rather than one of them always being skipped.
+   *
+   * @param mode the mode to decide by
+   * @return true if the check should be performed
+   */
+  public static boolean shouldCheck(Mode mode) {
+    if (mode == Mode.ALWAYS) {
+      return true;
+    }
+    if (mode == Mode.OFF) {
+      return false;
+    }
+    return sample();
+  }
+
+  /**
+   * Returns the offset of the first element to test when sampling the elements of a collection.
+   * The offset is random so that repeated calls on the same collection cover different elements.
+   *
+   * @return an offset in the range [0, SAMPLE_INTERVAL)
+   */
+  static int elementOffset() {
+    return SAMPLE_INTERVAL == 1 ? 0 : ThreadLocalRandom.current().nextInt(SAMPLE_INTERVAL);
+  }
+
+  private static boolean sample() {
+    if (SAMPLE_FRACTION > 0) {
+      return ThreadLocalRandom.current().nextDouble() < SAMPLE_FRACTION;
+    }
+    long[] countdown = COUNTDOWN.get();
+    if (--countdown[0] <= 0) {
+      countdown[0] = nextCountdown();
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Returns the number of calls until the next sampled check, uniform in the range
+   * [1, 2 * SAMPLE_INTERVAL - 1].
+   */
+  private static long nextCountdown() {
+    return ThreadLocalRandom.current().nextLong(1, 2L * SAMPLE_INTERVAL);
+  }
+
+  /**
+   * Reads the per-name overrides from the given properties.
+   *
+   * @param properties the properties to read from
+   * @return an unmodifiable map from name to mode
+   */
+  static Map<String, Mode> readOverrides(Properties properties) {
+    String prefix = MODE_PROPERTY + ".";
+    Map<String, Mode> overrides = new HashMap<>();
+    for (String key : properties.stringPropertyNames()) {
+      if (key.startsWith(prefix) && key.length() > prefix.length()) {
+        overrides.put(key.substring(prefix.length()), readMode(properties, key));
+      }
+    }
+    return Collections.unmodifiableMap(overrides);
+  }
+
+  /**
+   * Reads a mode from the given property. If the property is not the name of a mode, a warning
+   * naming the property is printed and <code>ALWAYS</code> is returned.
+   *
+   * @param properties the properties to read from
+   * @param key the name of the property
+   * @return the mode of the property, or <code>ALWAYS</code> if it is missing or invalid
+   */
+  static Mode readMode(Properties properties, String key) {
+    String value = properties.getProperty(key);
+    try {
+      return Mode.parse(value, Mode.ALWAYS);
+    } catch (IllegalArgumentException e) {
+      System.err.println(
+          "Illegal property '" + key + "': " + value + " , using " + Mode.ALWAYS);
+      return Mode.ALWAYS;
+    }
+  }
+
+  /**
+   * Reads the sample interval. If the property is not a positive integer, a warning is printed and
+   * the default of 16 is returned.
+   *
+   * @param properties the properties to read from
+   * @return the sample interval, or 16 if it is missing or invalid
+   */
+  static int readInterval(Properties properties) {
+    String value = properties.getProperty(INTERVAL_PROPERTY);
+    if (value == null) {
+      return 16;
+    }
+    try {
+      int interval = Integer.parseInt(value.trim());
+      if (interval > 0) {
+        return interval;
+      }
+    } catch (NumberFormatException e) {
+      // Reported below
+    }
+    System.err.println(
+        "Illegal property '" + INTERVAL_PROPERTY + "': " + value + " , must be a positive integer");
+    return 16;
+  }
+
+  /**
+   * Reads the sample fraction. If the property is not a number in the range (0, 1], a warning is
+   * printed and 0 is returned, which samples every Nth call instead.
+   *
+   * @param properties the properties to read from
+   * @return the sample fraction, or 0 if it is missing or invalid
+   */
+  static double readFraction(Properties properties) {
+    String value = properties.getProperty(FRACTION_PROPERTY);
+    if (value == null) {
+      return 0;
+    }
+    try {
+      double fraction = Double.parseDouble(value);
+      if (fraction > 0 && fraction <= 1) {
+        return fraction;
+      }
+    } catch (NumberFormatException e) {
+      // Reported below
+    }
+    System.err.println(
+        "Illegal property '" + FRACTION_PROPERTY + "': " + value + " , must be in range (0, 1]");
+    return 0;
+  }
+}
@@ -0,0 +1,15 @@
+package main.input;
+
+/**
+ * Represents how bulk input sources handle lines that are rejected by a profile.
+ *
+ * @see main.input.InputRejectedException
+ */
+public enum ErrorPolicy {
+  /** Rejected lines are silently skipped. */
+  SKIP,
+  /** The first rejected line terminates the input with an error. */
+  SIGNAL_ERROR,
+  /** Rejected lines are passed to a side channel and the input continues. */
+  SIDE_CHANNEL
+}
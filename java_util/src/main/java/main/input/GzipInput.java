@@ -0,0 +1,590 @@
+package main.input;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Decompresses a gzip file for bulk parsing with a profile. A gzip file may consist of several
+ * members, each a complete gzip stream, as written by block compressing tools or by concatenating
+ * gzip files. The members are decompressed in parallel on a bounded pool of threads, and the
+ * decompressed blocks are handed to the reader in order through a bounded queue, so decompression
+ * and parsing run at the same time.
+ *
+ * <p>
+ * The length of a member is only known once it is decompressed, so the file is scanned for gzip
+ * headers and every candidate is decompressed speculatively. The members are then chained from
+ * the start of the file: the end of one member gives the start of the next, and only the result
+ * decompressed at that exact offset is used. Candidates that turn out to be compressed data that
+ * happens to look like a header are discarded. A member that is larger than
+ * <code>MEMBER_LIMIT</code> when decompressed is streamed block by block instead of being held in
+ * memory, so a file with a single member is decompressed on one thread. Like
+ * <code>GZIPInputStream</code>, data after the last member that is not a gzip header is ignored.
+ * </p>
+ *
+ * <p>
+ * Calling the input can look like this:
+ *
+ * <pre>
+ * {@code
+ * try (GzipInput input = new GzipInput(file)) {
+ *   input.parse(Input.INTEGER, numbers::add);
+ * }
+ * }
+ * </pre>
+ * </p>
+ *
+ * @see main.input.Profile
+ * @see main.input.LineReader
+ */
+public final class GzipInput implements Closeable {
+  static final int BLOCK_SIZE = 1 << 16;
+  static final int MEMBER_LIMIT = 1 << 20;
+  private static final int HEADER_LIMIT = 1 << 17;
+  private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+  private final FileChannel channel;
+  private final long length;
+  private final int threads;
+  private final ExecutorService pool;
+  private final BlockingQueue<ByteBuffer> blocks;
+  private final Thread coordinator;
+  private volatile IOException failure;
+  private volatile boolean closed;
+  private boolean started;
+
+  /**
+   * Constructs a new input that decompresses the file with one thread per available processor.
+   *
+   * @param file the gzip file to read
+   * @throws IOException if the file can not be opened
+   */
+  public GzipInput(Path file) throws IOException {
+    this(file, Runtime.getRuntime().availableProcessors(), 16);
+  }
+
+  /**
+   * Constructs a new input that decompresses the file.
+   *
+   * @param file the gzip file to read
+   * @param threads the number of threads decompressing members
+   * @param queueCapacity the number of decompressed blocks waiting to be read
+   * @throws IOException if the file can not be opened
+   * @throws IllegalArgumentException if the threads or the capacity are not positive
+   */
+  public GzipInput(Path file, int threads, int queueCapacity)
+      throws IOException, IllegalArgumentException {
+    // Explicit checks, so that they are kept when the validation policy skips Validate calls and
+    // run before the file is opened
+    if (threads <= 0) {
+      throw new IllegalArgumentException("Illegal argument 'threads': " + threads);
+    }
+    if (queueCapacity <= 0) {
+      throw new IllegalArgumentException("Illegal argument 'queueCapacity': " + queueCapacity);
+    }
+    this.channel = FileChannel.open(file, StandardOpenOption.READ);
+    this.length = channel.size();
+    this.threads = threads;
+    this.pool = Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, "gzip-inflater");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.blocks = new ArrayBlockingQueue<>(queueCapacity);
+    this.coordinator = new Thread(this::coordinate, "gzip-coordinator");
+    this.coordinator.setDaemon(true);
+  }
+
+  /**
+   * Returns the decompressed content of the file and starts the decompression. The stream can
+   * only be requested once.
+   *
+   * @return a stream of the decompressed bytes
+   * @throws IllegalStateException if the stream is already requested
+   */
+  public synchronized InputStream getStream() throws IllegalStateException {
+    if (started) {
+      throw new IllegalStateException("The stream of a GzipInput can only be requested once");
+    }
+    started = true;
+    coordinator.start();
+    return new BlockStream();
+  }
+
+  /**
+   * Parses the lines of the decompressed file with the profile. The first rejected line ends the
+   * parsing with an <code>InputRejectedException</code>.
+   *
+   * @param <T> the type of the parsed values
+   * @param profile the profile to parse the lines with
+   * @param sink the consumer of the parsed values
+   * @return the number of lines read
+   * @throws IOException if the file can not be read or decompressed
+   * @throws InputRejectedException if a line is rejected by the profile
+   */
+  public <T> long parse(Profile<T> profile, Consumer<? super T> sink) throws IOException {
+    return parse(profile, sink, e -> {
+      throw e;
+    });
+  }
+
+  /**
+   * Parses the lines of the decompressed file with the profile. Rejected lines are passed to the
+   * given consumer.
+   *
+   * @param <T> the type of the parsed values
+   * @param profile the profile to parse the lines with
+   * @param sink the consumer of the parsed values
+   * @param rejected the consumer of rejected lines
+   * @return the number of lines read
+   * @throws IOException if the file can not be read or decompressed
+   */
+  public <T> long parse(
+      Profile<T> profile, Consumer<? super T> sink,
+      Consumer<? super InputRejectedException> rejected) throws IOException {
+    LineParser<T> parser = new LineParser<>(profile);
+    LineReader lines = new LineReader(getStream());
+    while (lines.next()) {
+      try {
+        sink.accept(parser.parse(lines));
+      } catch (InputRejectedException e) {
+        rejected.accept(e);
+      }
+    }
+    return lines.lineNumber();
+  }
+
+  /**
+   * Stops the decompression, waits for the coordinating thread to finish and closes the file.
+   *
+   * @throws IOException if the file can not be closed
+   */
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    coordinator.interrupt();
+    pool.shutdownNow();
+    channel.close();
+    try {
+      coordinator.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  // ------------------------------------
+  // -           Coordination           -
+  // ------------------------------------
+  /**
+   * Chains the members from the start of the file and puts their decompressed blocks on the
+   * queue. Speculative decompression is kept at most <code>2 * threads</code> candidates ahead.
+   */
+  private void coordinate() {
+    TreeMap<Long, Future<Member>> window = new TreeMap<>();
+    Scanner scanner = new Scanner();
+    try {
+      long position = 0;
+      boolean first = true;
+      // An empty file is read as a truncated first member
+      while (first || position < length) {
+        long scanLimit = position + 2L * threads * MEMBER_LIMIT;
+        while (window.size() < 2 * threads) {
+          long candidate = scanner.next(position, scanLimit);
+          if (candidate < 0) {
+            break;
+          }
+          Speculation speculation = new Speculation(channel, candidate);
+          pool.execute(speculation);
+          window.put(candidate, speculation);
+        }
+
+        Member member;
+        try {
+          Future<Member> future = window.remove(position);
+          member = future == null ? Member.speculate(channel, position) : get(future);
+        } catch (HeaderException e) {
+          if (first) {
+            throw e;
+          }
+          break; // Trailing data that is not a gzip member
+        }
+
+        try {
+          put(ByteBuffer.wrap(member.data, 0, member.size));
+          while (!member.isFinished()) {
+            byte[] block = new byte[BLOCK_SIZE];
+            int size = member.inflate(block, 0, block.length);
+            if (size > 0) {
+              put(ByteBuffer.wrap(block, 0, size));
+            }
+          }
+        } finally {
+          member.release();
+        }
+        position = member.end;
+        first = false;
+        discard(window.headMap(position));
+      }
+    } catch (IOException e) {
+      failure = e;
+    } catch (RuntimeException e) {
+      failure = new IOException(e);
+    } catch (InterruptedException e) {
+      failure = new InterruptedIOException("Decompression was interrupted");
+    }
+    discard(window);
+    if (!closed) {
+      try {
+        blocks.put(END);
+        return;
+      } catch (InterruptedException e) {
+        // Closed while waiting for the reader, handled below
+      }
+    }
+    // The input is closed, so the remaining blocks will not be read
+    blocks.clear();
+    blocks.offer(END);
+  }
+
+  private static Member get(Future<Member> future) throws IOException, InterruptedException {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException(e.getCause());
+    }
+  }
+
+  private void put(ByteBuffer block) throws InterruptedException {
+    if (block.hasRemaining()) {
+      blocks.put(block);
+    }
+  }
+
+  /**
+   * Cancels the speculative members of the map. Finished members are released here, and running
+   * members release themselves when they finish, see <code>Speculation</code>. Running members are
+   * not interrupted, since an interrupt during a read would close the shared file channel.
+   */
+  private static void discard(Map<Long, Future<Member>> members) {
+    for (Iterator<Future<Member>> i = members.values().iterator(); i.hasNext(); ) {
+      Future<Member> future = i.next();
+      future.cancel(false);
+      if (future.isDone() && !future.isCancelled()) {
+        try {
+          future.get().release();
+        } catch (ExecutionException | InterruptedException e) {
+          // The member failed, so there is no inflater to release
+        }
+      }
+      i.remove();
+    }
+  }
+
+  /**
+   * The speculative decompression of a candidate member. A member that finishes after it was
+   * cancelled is released, since no one will take it from the future.
+   */
+  private static final class Speculation extends FutureTask<Member> {
+    private Speculation(FileChannel channel, long start) {
+      super(() -> Member.speculate(channel, start));
+    }
+
+    @Override
+    protected void set(Member member) {
+      super.set(member);
+      if (isCancelled()) {
+        member.release();
+      }
+    }
+  }
+
+  /**
+   * The stream read by the consumer. Blocks are taken from the queue until the end marker, after
+   * which the failure of the decompression, if any, is thrown.
+   */
+  private final class BlockStream extends InputStream {
+    private ByteBuffer current = END;
+    private boolean ended;
+
+    @Override
+    public int read() throws IOException {
+      byte[] b = new byte[1];
+      return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      if (len == 0) {
+        return 0;
+      }
+      while (!current.hasRemaining()) {
+        if (ended) {
+          return end();
+        }
+        try {
+          current = blocks.take();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException();
+        }
+        ended = current == END;
+      }
+      int size = Math.min(len, current.remaining());
+      current.get(b, off, size);
+      return size;
+    }
+
+    private int end() throws IOException {
+      if (failure != null) {
+        throw failure;
+      }
+      return -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+      GzipInput.this.close();
+    }
+  }
+
+  /**
+   * Scans the file for byte sequences that may start a gzip member: the magic bytes, the deflate
+   * method and a flag byte without reserved bits.
+   */
+  private final class Scanner {
+    private final ByteBuffer buffer = ByteBuffer.allocate(BLOCK_SIZE);
+    private long bufferStart = -1;
+    private long position;
+
+    /**
+     * Returns the next candidate at or after <code>from</code> and before <code>limit</code>, or
+     * -1 if there is none.
+     */
+    long next(long from, long limit) throws IOException {
+      position = Math.max(position, from);
+      limit = Math.min(limit, length);
+      byte[] bytes = buffer.array();
+      while (position < limit) {
+        int index = (int) (position - bufferStart);
+        if (bufferStart < 0 || index < 0 || index + 4 > buffer.limit()) {
+          if (position + 4 > length) {
+            return -1;
+          }
+          buffer.clear();
+          bufferStart = position;
+          while (buffer.hasRemaining()
+              && channel.read(buffer, bufferStart + buffer.position()) > 0) {
+            continue;
+          }
+          buffer.flip();
+          index = 0;
+        }
+        long candidate = position++;
+        if (bytes[index] == (byte) 0x1F && bytes[index + 1] == (byte) 0x8B
+            && bytes[index + 2] == 8 && (bytes[index + 3] & 0xE0) == 0) {
+          return candidate;
+        }
+      }
+      return -1;
+    }
+  }
+
+  // ------------------------------------
+  // -              Members             -
+  // ------------------------------------
+  /**
+   * A gzip member being decompressed. The member reads its compressed data with positional reads,
+   * so several members of the same file can be decompressed at the same time.
+   */
+  static final class Member {
+    private final FileChannel channel;
+    private final Inflater inflater;
+    private final CRC32 crc = new CRC32();
+    private final ByteBuffer input = ByteBuffer.allocate(HEADER_LIMIT);
+    private long position;
+    private long end = -1;
+    private byte[] data;
+    private int size;
+
+    /**
+     * Reads the header of the member starting at the given offset.
+     *
+     * @throws HeaderException if the magic bytes, the method or the flags are not those of a gzip
+     *     header
+     * @throws EOFException if the file ends within the header
+     * @throws ZipException if the header does not fit in <code>HEADER_LIMIT</code> bytes
+     */
+    private Member(FileChannel channel, long start) throws IOException {
+      this.channel = channel;
+      this.position = start;
+      fill();
+      byte[] bytes = input.array();
+      int limit = input.limit();
+      // Only the bytes that were read are checked, a prefix of a header is a truncated header
+      if ((limit > 0 && bytes[0] != (byte) 0x1F) || (limit > 1 && bytes[1] != (byte) 0x8B)
+          || (limit > 2 && bytes[2] != 8) || (limit > 3 && (bytes[3] & 0xE0) != 0)) {
+        throw new HeaderException("Not in GZIP format");
+      }
+      int flags = limit > 3 ? bytes[3] : 0;
+      int index = 10;
+      if ((flags & 4) != 0) {
+        index = index + 2 <= limit
+            ? index + 2 + ((bytes[index] & 0xFF) | (bytes[index + 1] & 0xFF) << 8)
+            : limit;
+      }
+      if ((flags & 8) != 0) {
+        while (index < limit && bytes[index++] != 0) {
+          continue;
+        }
+      }
+      if ((flags & 16) != 0) {
+        while (index < limit && bytes[index++] != 0) {
+          continue;
+        }
+      }
+      if ((flags & 2) != 0) {
+        index += 2;
+      }
+      if (index >= limit) {
+        // The header was accepted, so this is a broken member rather than trailing data
+        if (limit < input.capacity()) {
+          throw new EOFException("Unexpected end of GZIP header");
+        }
+        throw new ZipException("Unsupported GZIP header, longer than " + HEADER_LIMIT + " bytes");
+      }
+      this.inflater = new Inflater(true);
+      inflater.setInput(bytes, index, limit - index);
+    }
+
+    /**
+     * Decompresses the member starting at the given offset until it is finished or its
+     * decompressed size reaches <code>MEMBER_LIMIT</code>.
+     */
+    static Member speculate(FileChannel channel, long start) throws IOException {
+      Member member = new Member(channel, start);
+      try {
+        member.data = new byte[BLOCK_SIZE];
+        while (member.size < MEMBER_LIMIT && !member.isFinished()) {
+          if (member.size == member.data.length) {
+            member.data = Arrays.copyOf(member.data, member.size * 2);
+          }
+          int inflated = member.inflate(member.data, member.size, member.data.length - member.size);
+          member.size += Math.max(0, inflated);
+        }
+      } catch (IOException | RuntimeException e) {
+        member.release();
+        throw e;
+      }
+      return member;
+    }
+
+    /**
+     * Releases the inflater. Calling this more than once has no effect.
+     */
+    void release() {
+      inflater.end();
+    }
+
+    boolean isFinished() {
+      return end >= 0;
+    }
+
+    /**
+     * Decompresses into the given array. When the member is finished its trailer is verified and
+     * the inflater is released.
+     *
+     * @return the number of decompressed bytes, or -1 if the member is finished
+     */
+    int inflate(byte[] b, int off, int len) throws IOException {
+      try {
+        while (true) {
+          int inflated = inflater.inflate(b, off, len);
+          if (inflated > 0) {
+            crc.update(b, off, inflated);
+            return inflated;
+          }
+          if (inflater.finished()) {
+            finish();
+            return -1;
+          }
+          if (inflater.needsDictionary()) {
+            throw new ZipException("Unsupported preset dictionary");
+          }
+          if (inflater.needsInput()) {
+            fill();
+            if (!input.hasRemaining()) {
+              throw new EOFException("Unexpected end of ZLIB input stream");
+            }
+            inflater.setInput(input.array(), 0, input.limit());
+          }
+        }
+      } catch (DataFormatException e) {
+        throw new ZipException(e.getMessage());
+      }
+    }
+
+    private void fill() throws IOException {
+      input.clear();
+      int read = channel.read(input, position);
+      input.flip();
+      position += Math.max(0, read);
+    }
+
+    private void finish() throws IOException {
+      long trailer = position - inflater.getRemaining();
+      long written = inflater.getBytesWritten();
+      inflater.end();
+      ByteBuffer bytes = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+      while (bytes.hasRemaining() && channel.read(bytes, trailer + bytes.position()) > 0) {
+        continue;
+      }
+      if (bytes.hasRemaining()) {
+        throw new EOFException("Unexpected end of GZIP trailer");
+      }
+      if ((bytes.getInt(0) & 0xFFFFFFFFL) != crc.getValue()
+          || (bytes.getInt(4) & 0xFFFFFFFFL) != (written & 0xFFFFFFFFL)) {
+        throw new ZipException("Corrupt GZIP trailer");
+      }
+      end = trailer + 8;
+    }
+  }
+
+  /**
+   * Thrown when the magic bytes, the method or the flags at the start of a member are not those of
+   * a gzip header. After the first member this marks the end of the gzip data, while any failure
+   * after these bytes are accepted, including a truncated or oversized header, is an error.
+   */
+  static final class HeaderException extends ZipException {
+    private static final long serialVersionUID = 1L;
+
+    HeaderException(String message) {
+      super(message);
+    }
+  }
+}
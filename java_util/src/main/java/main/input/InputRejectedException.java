@@ -0,0 +1,36 @@
+package main.input;
+
+/**
+ * Thrown when a line of bulk input can not be parsed by a profile, or the parsed value is not in
+ * the requested range. The exception holds the number and the raw text of the rejected line.
+ *
+ * @see main.input.ErrorPolicy
+ */
+public class InputRejectedException extends IllegalArgumentException {
+  private static final long serialVersionUID = 1L;
+
+  private final long lineNumber;
+  private final String line;
+
+  /**
+   * Constructs a new exception for the given line.
+   *
+   * @param lineNumber the number of the rejected line, starting at 1
+   * @param line the raw text of the rejected line
+   * @param reason the reason the line was rejected
+   * @param cause the exception thrown by the parse method, may be null
+   */
+  public InputRejectedException(long lineNumber, String line, String reason, Throwable cause) {
+    super("Illegal input on line " + lineNumber + ": '" + line + "' , " + reason, cause);
+    this.lineNumber = lineNumber;
+    this.line = line;
+  }
+
+  public long getLineNumber() {
+    return lineNumber;
+  }
+
+  public String getLine() {
+    return line;
+  }
+}
@@ -0,0 +1,304 @@
+package main.input;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * An index of the line offsets of a file, used to parse any range of lines with a profile without
+ * reading the file from the start. The index is built by scanning the file once and records the
+ * byte offset of every Nth line. To parse a range of lines, the file is positioned at the closest
+ * recorded line before the range, and at most N - 1 lines are skipped. Lines are numbered from 1,
+ * like the line numbers of <code>InputRejectedException</code>, so a rejected line can be parsed
+ * again by its number.
+ *
+ * <p>
+ * The index can be saved to disk and loaded again. The offsets are stored as variable-length
+ * deltas, so a sampled offset usually takes one to three bytes.
+ * </p>
+ *
+ * <p>
+ * The index records the length and the last modified time of the file, and refuses to parse a
+ * file where either differs. A rewrite that keeps both the length and the modified time, for
+ * example one that restores the time afterwards, is not detected.
+ * </p>
+ *
+ * <p>
+ * Calling the index can look like this:
+ *
+ * <pre>
+ * {@code
+ * LineIndex index = LineIndex.build(file, 1024);
+ * List<Integer> page = index.parse(file, Input.INTEGER, 20_001, 100);
+ * }
+ * </pre>
+ * </p>
+ *
+ * @see main.input.Profile
+ * @see main.input.InputRejectedException
+ */
+public final class LineIndex {
+  private static final int MAGIC = 0x4C494458; // "LIDX"
+  private static final int VERSION = 2;
+  private static final int SCAN_BUFFER_SIZE = 1 << 16;
+
+  private final int interval;
+  private final long lineCount;
+  private final long fileLength;
+  private final long lastModified;
+  private final long[] offsets;
+
+  private LineIndex(
+      int interval, long lineCount, long fileLength, long lastModified, long[] offsets) {
+    this.interval = interval;
+    this.lineCount = lineCount;
+    this.fileLength = fileLength;
+    this.lastModified = lastModified;
+    this.offsets = offsets;
+  }
+
+  /**
+   * Builds the index of a file by scanning it once.
+   *
+   * @param file the file to index
+   * @param interval the number of lines between recorded offsets
+   * @return the index of the file
+   * @throws IOException if the file can not be read
+   * @throws IllegalArgumentException if the interval is not positive
+   */
+  public static LineIndex build(Path file, int interval)
+      throws IOException, IllegalArgumentException {
+    if (interval <= 0) {
+      throw new IllegalArgumentException("Illegal argument 'interval': " + interval);
+    }
+    // Read before the scan, so a change during the scan makes the index stale
+    long lastModified = Files.getLastModifiedTime(file).toMillis();
+    long[] offsets = new long[16];
+    int count = 0;
+    long newlines = 0;
+    long position = 0;
+    byte last = '\n';
+
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+      byte[] bytes = buffer.array();
+      int read;
+      while ((read = channel.read(buffer)) >= 0) {
+        for (int i = 0; i < read; i++) {
+          if (last == '\n' && newlines % interval == 0) {
+            if (count == offsets.length) {
+              offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            offsets[count++] = position + i;
+          }
+          last = bytes[i];
+          if (last == '\n') {
+            newlines++;
+          }
+        }
+        position += read;
+        buffer.clear();
+      }
+    }
+
+    long lineCount = newlines + (last == '\n' ? 0 : 1);
+    return new LineIndex(
+        interval, lineCount, position, lastModified, Arrays.copyOf(offsets, count));
+  }
+
+  /**
+   * Loads an index saved with <code>save</code>.
+   *
+   * @param file the file the index is saved in
+   * @return the loaded index
+   * @throws IOException if the file can not be read or is not a saved index
+   */
+  public static LineIndex load(Path file) throws IOException {
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        throw new IOException("Not a line index: " + file);
+      }
+      int interval = in.readInt();
+      long lineCount = in.readLong();
+      long fileLength = in.readLong();
+      long lastModified = in.readLong();
+      int count = in.readInt();
+      if (interval <= 0 || lineCount < 0 || fileLength < 0
+          || count != (lineCount + interval - 1) / interval) {
+        throw new IOException("Malformed line index: " + file);
+      }
+      long[] offsets = new long[count];
+      long offset = 0;
+      for (int i = 0; i < offsets.length; i++) {
+        offset += readVarLong(in);
+        if (offset < 0 || offset > fileLength) {
+          throw new IOException("Malformed line index: " + file);
+        }
+        offsets[i] = offset;
+      }
+      return new LineIndex(interval, lineCount, fileLength, lastModified, offsets);
+    }
+  }
+
+  /**
+   * Saves the index to a file. The offsets are stored as the difference to the previous offset,
+   * encoded with seven bits per byte.
+   *
+   * @param file the file to save the index in
+   * @throws IOException if the file can not be written
+   */
+  public void save(Path file) throws IOException {
+    try (DataOutputStream out =
+        new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(interval);
+      out.writeLong(lineCount);
+      out.writeLong(fileLength);
+      out.writeLong(lastModified);
+      out.writeInt(offsets.length);
+      long previous = 0;
+      for (long offset : offsets) {
+        writeVarLong(out, offset - previous);
+        previous = offset;
+      }
+    }
+  }
+
+  public int getInterval() {
+    return interval;
+  }
+
+  public long getLineCount() {
+    return lineCount;
+  }
+
+  public long getFileLength() {
+    return fileLength;
+  }
+
+  public long getLastModified() {
+    return lastModified;
+  }
+
+  /**
+   * Parses a range of lines of the file with the profile. The first rejected line ends the parsing
+   * with an <code>InputRejectedException</code>.
+   *
+   * @param <T> the type of the parsed values
+   * @param file the indexed file
+   * @param profile the profile to parse the lines with
+   * @param firstLine the number of the first line to parse, starting at 1
+   * @param count the maximum number of lines to parse
+   * @return the parsed values, fewer than <code>count</code> if the file ends first
+   * @throws IOException if the file can not be read
+   * @throws InputRejectedException if a line is rejected by the profile
+   * @throws IllegalArgumentException if the range is invalid or the file does not match the index
+   */
+  public <T> List<T> parse(Path file, Profile<T> profile, long firstLine, int count)
+      throws IOException, IllegalArgumentException {
+    return parse(file, profile, firstLine, count, e -> {
+      throw e;
+    });
+  }
+
+  /**
+   * Parses a range of lines of the file with the profile. Rejected lines are passed to the given
+   * consumer and left out of the result.
+   *
+   * @param <T> the type of the parsed values
+   * @param file the indexed file
+   * @param profile the profile to parse the lines with
+   * @param firstLine the number of the first line to parse, starting at 1
+   * @param count the maximum number of lines to parse
+   * @param rejected the consumer of rejected lines
+   * @return the parsed values
+   * @throws IOException if the file can not be read
+   * @throws IllegalArgumentException if the range is invalid or the file does not match the index
+   */
+  public <T> List<T> parse(
+      Path file, Profile<T> profile, long firstLine, int count,
+      Consumer<? super InputRejectedException> rejected)
+      throws IOException, IllegalArgumentException {
+    // Explicit checks, so that they are kept when the validation policy skips Validate calls
+    if (firstLine < 1 || firstLine > lineCount + 1) {
+      throw new IllegalArgumentException(
+          "Illegal argument 'firstLine': " + firstLine + " , must be in range [1, "
+              + (lineCount + 1) + "]");
+    }
+    if (count < 0) {
+      throw new IllegalArgumentException("Illegal argument 'count': " + count);
+    }
+    long size = Files.size(file);
+    if (size != fileLength) {
+      throw new IllegalArgumentException(
+          "Illegal argument 'file': " + file + " , has " + size + " bytes but the index has "
+              + fileLength);
+    }
+    long modified = Files.getLastModifiedTime(file).toMillis();
+    if (modified != lastModified) {
+      throw new IllegalArgumentException(
+          "Illegal argument 'file': " + file + " , was modified at " + modified
+              + " but the index was built at " + lastModified);
+    }
+
+    LineParser<T> parser = new LineParser<>(profile);
+    List<T> parsed = new ArrayList<>((int) Math.min(count, lineCount - firstLine + 1));
+    if (count == 0 || firstLine > lineCount) {
+      return parsed;
+    }
+
+    int sample = (int) ((firstLine - 1) / interval);
+    long lineNumber = (long) sample * interval;
+    long lastLine = Math.min(lineCount, firstLine - 1 + count);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      channel.position(offsets[sample]);
+      LineReader lines = new LineReader(Channels.newInputStream(channel));
+      while (lineNumber < firstLine - 1 && lines.next()) {
+        lineNumber++;
+      }
+      while (lineNumber < lastLine && lines.next()) {
+        lineNumber++;
+        try {
+          parsed.add(parser.parse(lines.chars(), lines.offset(), lines.length(), lineNumber));
+        } catch (InputRejectedException e) {
+          rejected.accept(e);
+        }
+      }
+    }
+    return parsed;
+  }
+
+  private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      out.writeByte((int) (value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte((int) value);
+  }
+
+  private static long readVarLong(DataInputStream in) throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = in.readUnsignedByte();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed line index");
+  }
+}
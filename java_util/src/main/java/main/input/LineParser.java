@@ -0,0 +1,70 @@
+package main.input;
+
+/**
+ * Parses lines of bulk input with a profile. A line is rejected with an
+ * <code>InputRejectedException</code> if it does not match the regex of the profile, if the parse
+ * method throws, or if a range is given and the parsed value is not in it. If the profile is
+ * cached, a repeated line is looked up before the regex is applied.
+ *
+ * @param <T> the type of the parsed values
+ * @see main.input.Profile
+ */
+final class LineParser<T> {
+  private final Profile<T> profile;
+  private final boolean ranged;
+  private final int min;
+  private final int max;
+
+  LineParser(Profile<T> profile) {
+    this.profile = profile;
+    this.ranged = false;
+    this.min = 0;
+    this.max = 0;
+  }
+
+  LineParser(Profile<T> profile, int min, int max) {
+    this.profile = profile;
+    this.ranged = true;
+    this.min = min;
+    this.max = max;
+  }
+
+  /**
+   * Parses the line in the given range of the buffer.
+   *
+   * @param chars the buffer containing the line
+   * @param offset the index of the first character of the line
+   * @param length the number of characters in the line
+   * @param lineNumber the number of the line, used if the line is rejected
+   * @return the parsed value
+   * @throws InputRejectedException if the line is rejected
+   */
+  T parse(char[] chars, int offset, int length, long lineNumber) throws InputRejectedException {
+    // A cached token has already matched and parsed, so a hit skips the regex
+    T parsed = profile.findCached(chars, offset, length);
+    if (parsed == null) {
+      if (!profile.canParse(chars, offset, length)) {
+        throw new InputRejectedException(
+            lineNumber, new String(chars, offset, length),
+            "does not match " + profile.getRegex(), null);
+      }
+      try {
+        parsed = profile.parse(chars, offset, length);
+      } catch (RuntimeException e) {
+        throw new InputRejectedException(
+            lineNumber, new String(chars, offset, length),
+            "can not be parsed as " + profile.getTarget().getSimpleName(), e);
+      }
+    }
+    if (ranged && !profile.isInRange(parsed, min, max)) {
+      throw new InputRejectedException(
+          lineNumber, new String(chars, offset, length),
+          "not in range [" + min + ", " + max + "]", null);
+    }
+    return parsed;
+  }
+
+  T parse(LineReader lines) throws InputRejectedException {
+    return parse(lines.chars(), lines.offset(), lines.length(), lines.lineNumber());
+  }
+}
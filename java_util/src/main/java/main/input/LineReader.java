@@ -0,0 +1,126 @@
+package main.input;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads lines from a <code>Reader</code> in batches. Unlike <code>Input.readNext</code>, which
+ * reads a single character at a time, the reader fills a buffer with as many characters as are
+ * available and scans it for line breaks. The current line is exposed as a range of the buffer,
+ * so no <code>String</code> is built unless requested. A line is terminated by <code>'\n'</code>,
+ * and a trailing <code>'\r'</code> is removed.
+ *
+ * @see main.input.Input
+ */
+final class LineReader implements Closeable {
+  static final int DEFAULT_BUFFER_SIZE = 8192;
+
+  private final Reader reader;
+  private char[] buffer;
+  private int position;
+  private int limit;
+  private boolean eof;
+
+  private int lineOffset;
+  private int lineLength;
+  private long lineNumber;
+
+  LineReader(InputStream in) {
+    this(new InputStreamReader(in, StandardCharsets.UTF_8), DEFAULT_BUFFER_SIZE);
+  }
+
+  LineReader(Reader reader, int bufferSize) {
+    this.reader = reader;
+    this.buffer = new char[bufferSize];
+  }
+
+  /**
+   * Advances to the next line.
+   *
+   * @return true if a line was read, false if the end of the input is reached
+   * @throws IOException if the underlying reader fails
+   */
+  boolean next() throws IOException {
+    int scan = position;
+    while (true) {
+      for (int i = scan; i < limit; i++) {
+        if (buffer[i] == '\n') {
+          setLine(position, i);
+          position = i + 1;
+          return true;
+        }
+      }
+      if (eof) {
+        if (position < limit) {
+          setLine(position, limit);
+          position = limit;
+          return true;
+        }
+        return false;
+      }
+
+      // Make room for more characters, either by discarding read lines or growing the buffer
+      if (position > 0) {
+        System.arraycopy(buffer, position, buffer, 0, limit - position);
+        limit -= position;
+        position = 0;
+      } else if (limit == buffer.length) {
+        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+      }
+      scan = limit;
+
+      int read = reader.read(buffer, limit, buffer.length - limit);
+      if (read < 0) {
+        eof = true;
+      } else {
+        limit += read;
+      }
+    }
+  }
+
+  private void setLine(int start, int end) {
+    if (end > start && buffer[end - 1] == '\r') {
+      end--;
+    }
+    lineOffset = start;
+    lineLength = end - start;
+    lineNumber++;
+  }
+
+  /**
+   * Returns the buffer holding the current line. The buffer is only valid until the next call to
+   * <code>next</code>.
+   */
+  char[] chars() {
+    return buffer;
+  }
+
+  int offset() {
+    return lineOffset;
+  }
+
+  int length() {
+    return lineLength;
+  }
+
+  /**
+   * Returns the number of the current line, starting at 1.
+   */
+  long lineNumber() {
+    return lineNumber;
+  }
+
+  String line() {
+    return new String(buffer, lineOffset, lineLength);
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+}
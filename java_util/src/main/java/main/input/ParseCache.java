@@ -0,0 +1,203 @@
+package main.input;
+
+/**
+ * A bounded cache of parsed values for a <code>Profile</code>. The cache is keyed by the raw
+ * characters of the input, so a repeated token is looked up without first building a
+ * <code>String</code>, and every occurrence of the token reuses the same parsed instance. The
+ * cache is a fixed-size open-addressed table: when all the probed slots are taken, the home slot
+ * of the new token is overwritten. Tokens longer than <code>MAX_KEY_LENGTH</code> are never
+ * cached, and the table never holds more than <code>MAX_CAPACITY</code> entries.
+ *
+ * <p>
+ * The entries are immutable and written with a single reference store, so the cache may be shared
+ * between threads. A racing write can at worst evict another entry.
+ * </p>
+ *
+ * @param <T> the type of the parsed values
+ * @see main.input.Profile
+ */
+final class ParseCache<T> {
+  static final int MAX_KEY_LENGTH = 64;
+  static final int MAX_CAPACITY = 1 << 20;
+  private static final int PROBES = 4;
+
+  private final Entry<T>[] table;
+  private final int mask;
+
+  /**
+   * An immutable cache entry holding the token and the parsed value. The token is the same
+   * <code>String</code> that was passed to the parse method, so a miss copies the characters once.
+   */
+  private static final class Entry<T> {
+    private final int hash;
+    private final String key;
+    private final T value;
+
+    private Entry(int hash, String key, T value) {
+      this.hash = hash;
+      this.key = key;
+      this.value = value;
+    }
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  ParseCache(int capacity) {
+    int size = Integer.highestOneBit(Math.max(PROBES, Math.min(capacity, MAX_CAPACITY) - 1)) << 1;
+    this.table = (Entry<T>[]) new Entry[size];
+    this.mask = size - 1;
+  }
+
+  /**
+   * Returns the number of cached values.
+   */
+  int size() {
+    int size = 0;
+    for (Entry<T> entry : table) {
+      if (entry != null) {
+        size++;
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Returns the number of slots in the table, which bounds the number of cached values.
+   */
+  int capacity() {
+    return table.length;
+  }
+
+  /**
+   * Returns the cached value for the characters, parsing and caching them on a miss.
+   *
+   * @param chars the buffer containing the token
+   * @param offset the index of the first character of the token
+   * @param length the number of characters in the token
+   * @param parseMethod the method used to parse the token on a miss
+   * @return the parsed value
+   */
+  T get(char[] chars, int offset, int length, ParseMethod<T> parseMethod) {
+    if (length > MAX_KEY_LENGTH) {
+      return parseMethod.run(new String(chars, offset, length));
+    }
+    int hash = hash(chars, offset, length);
+    T cached = lookup(hash, chars, offset, length);
+    if (cached != null) {
+      return cached;
+    }
+
+    String s = new String(chars, offset, length);
+    T value = parseMethod.run(s);
+    store(new Entry<>(hash, s, value));
+    return value;
+  }
+
+  /**
+   * Returns the cached value for the characters without parsing them.
+   *
+   * @param chars the buffer containing the token
+   * @param offset the index of the first character of the token
+   * @param length the number of characters in the token
+   * @return the cached value, or null if the token is not cached
+   */
+  T find(char[] chars, int offset, int length) {
+    if (length > MAX_KEY_LENGTH) {
+      return null;
+    }
+    return lookup(hash(chars, offset, length), chars, offset, length);
+  }
+
+  private T lookup(int hash, char[] chars, int offset, int length) {
+    Entry<T>[] table = this.table;
+    for (int probe = 0; probe < PROBES; probe++) {
+      Entry<T> entry = table[(hash + probe) & mask];
+      if (entry == null) {
+        return null;
+      }
+      if (entry.hash == hash && matches(entry.key, chars, offset, length)) {
+        return entry.value;
+      }
+    }
+    return null;
+  }
+
+  private static int hash(char[] chars, int offset, int length) {
+    int hash = 0;
+    for (int i = offset, end = offset + length; i < end; i++) {
+      hash = 31 * hash + chars[i];
+    }
+    return hash ^ (hash >>> 16);
+  }
+
+  /**
+   * Returns the cached value for the character sequence, parsing and caching it on a miss.
+   *
+   * @param s the token
+   * @param parseMethod the method used to parse the token on a miss
+   * @return the parsed value
+   */
+  T get(CharSequence s, ParseMethod<T> parseMethod) {
+    int length = s.length();
+    if (length > MAX_KEY_LENGTH) {
+      return parseMethod.run(s.toString());
+    }
+    int hash = 0;
+    for (int i = 0; i < length; i++) {
+      hash = 31 * hash + s.charAt(i);
+    }
+    hash ^= hash >>> 16;
+
+    Entry<T>[] table = this.table;
+    for (int probe = 0; probe < PROBES; probe++) {
+      Entry<T> entry = table[(hash + probe) & mask];
+      if (entry == null) {
+        break;
+      }
+      if (entry.hash == hash && matches(entry.key, s)) {
+        return entry.value;
+      }
+    }
+
+    String string = s.toString();
+    T value = parseMethod.run(string);
+    store(new Entry<>(hash, string, value));
+    return value;
+  }
+
+  private void store(Entry<T> entry) {
+    Entry<T>[] table = this.table;
+    for (int probe = 0; probe < PROBES; probe++) {
+      int index = (entry.hash + probe) & mask;
+      if (table[index] == null) {
+        table[index] = entry;
+        return;
+      }
+    }
+    table[entry.hash & mask] = entry;
+  }
+
+  private static boolean matches(String key, char[] chars, int offset, int length) {
+    if (key.length() != length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (key.charAt(i) != chars[offset + i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean matches(String key, CharSequence s) {
+    int length = key.length();
+    if (length != s.length()) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (key.charAt(i) != s.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -1,13 +1,17 @@
 package main.input;
 
+import java.nio.CharBuffer;
 import java.util.regex.Pattern;
+import main.Validate;
 
 /**
  * Represents a input profile for the type T. A profile contains a regex, a parse method and a
  * range check. This class is used to store the information for the <code>getInput</code> method.
  * The regex is used to check if the input is valid. The parse method is used to parse the input
  * into the type T. The range check is used to check if the input is in the provided range. If no
- * range check is provided, the input is always considered to be in range.
+ * range check is provided, the input is always considered to be in range. A profile can optionally
+ * carry a bounded cache of parsed values, see <code>withCache</code>, for bulk loading of input
+ * that repeats a small vocabulary of tokens.
  *
  * @param <T> the type of the profile
  * @see main.input.Input
@@ -15,23 +19,51 @@ import java.util.regex.Pattern;
 public class Profile<T> {
   private final Class<T> target;
   private final String regex;
+  private final Pattern pattern;
   private final ParseMethod<T> parseMethod;
   private final RangeCheck<T> rangeCheck;
+  private final ParseCache<T> cache;
 
   Profile(
       Class<T> target, String regex, ParseMethod<T> parseMethod, RangeCheck<T> rangeCheck
   ) {
-    this.target = target;
-    this.regex = regex;
-    this.rangeCheck = rangeCheck;
-    this.parseMethod = parseMethod;
+    this(target, regex, parseMethod, rangeCheck, null);
   }
 
   Profile(Class<T> target, String regex, ParseMethod<T> parseMethod) {
+    this(target, regex, parseMethod, (t, a, b) -> true, null);
+  }
+
+  private Profile(
+      Class<T> target, String regex, ParseMethod<T> parseMethod, RangeCheck<T> rangeCheck,
+      ParseCache<T> cache
+  ) {
     this.target = target;
     this.regex = regex;
-    this.rangeCheck = (t, a, b) -> true;
+    this.pattern = Pattern.compile(regex);
+    this.rangeCheck = rangeCheck;
     this.parseMethod = parseMethod;
+    this.cache = cache;
+  }
+
+  /**
+   * Returns a copy of this profile that caches up to roughly <code>capacity</code> parsed values.
+   * Repeated tokens parsed through the copy return the same instance, which reduces the heap 
+   * usage and garbage collection pressure when loading large inputs. The parse method should 
+   * therefore return values that are immutable and have no identity of their own. The capacity 
+   * is limited to about a million values.
+   *
+   * @param capacity the number of values to cache
+   * @return a caching copy of this profile
+   * @throws IllegalArgumentException if the capacity is not positive
+   */
+  public Profile<T> withCache(int capacity) throws IllegalArgumentException {
+    Validate.that(capacity, "capacity", Validate.isPositive);
+    return new Profile<>(target, regex, parseMethod, rangeCheck, new ParseCache<>(capacity));
+  }
+
+  public boolean isCached() {
+    return cache != null;
   }
 
   public Class<T> getTarget() {
@@ -51,7 +83,15 @@ public class Profile<T> {
   }
 
   public boolean canParse(String s) {
-    return Pattern.matches(regex, s);
+    return pattern.matcher(s).matches();
+  }
+
+  public boolean canParse(CharSequence s) {
+    return pattern.matcher(s).matches();
+  }
+
+  public boolean canParse(char[] chars, int offset, int length) {
+    return pattern.matcher(CharBuffer.wrap(chars, offset, length)).matches();
   }
 
   public boolean isInRange(T t, int a, int b) {
@@ -59,6 +99,46 @@ public class Profile<T> {
   }
 
   public T parse(String s) {
-    return parseMethod.run(s);
+    return cache == null ? parseMethod.run(s) : cache.get(s, parseMethod);
+  }
+
+  /**
+   * Parses the token in the given range of the buffer. If the profile is cached, a repeated token
+   * is looked up without building a <code>String</code>.
+   *
+   * @param chars the buffer containing the token
+   * @param offset the index of the first character of the token
+   * @param length the number of characters in the token
+   * @return the parsed value
+   */
+  public T parse(char[] chars, int offset, int length) {
+    if (cache == null) {
+      return parseMethod.run(new String(chars, offset, length));
+    }
+    return cache.get(chars, offset, length, parseMethod);
+  }
+
+  /**
+   * Returns the cached value for the token in the given range of the buffer, without matching or
+   * parsing it.
+   *
+   * @param chars the buffer containing the token
+   * @param offset the index of the first character of the token
+   * @param length the number of characters in the token
+   * @return the cached value, or null if the profile is not cached or the token is not cached
+   */
+  T findCached(char[] chars, int offset, int length) {
+    return cache == null ? null : cache.find(chars, offset, length);
+  }
+
+  /**
+   * Parses the given character sequence. If the profile is cached, a repeated token is looked up 
+   * without building a <code>String</code>.
+   *
+   * @param s the token
+   * @return the parsed value
+   */
+  public T parse(CharSequence s) {
+    return cache == null ? parseMethod.run(s.toString()) : cache.get(s, parseMethod);
   }
 }
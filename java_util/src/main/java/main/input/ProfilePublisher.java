@@ -0,0 +1,272 @@
+package main.input;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * A <code>Flow.Publisher</code> of the values parsed from the lines of an input stream. Each line
+ * is parsed with the given profile and, if a range is given, checked to be in the range. Lines are
+ * only read and parsed when a subscriber has requested them, so the publisher never runs ahead of
+ * the demand by more than the internal read buffer. The stream is read and the subscriber is
+ * signalled on the given executor. By default a shared pool of daemon threads is used rather than
+ * the common fork join pool, since a blocking read, for example from <code>System.in</code>, would
+ * otherwise hold a common pool worker that parallel streams and completable futures depend on.
+ *
+ * <p>
+ * Rejected lines are handled according to the error policy. With <code>SKIP</code> they are
+ * ignored, with <code>SIGNAL_ERROR</code> the subscriber receives an
+ * <code>InputRejectedException</code> in <code>onError</code>, and with
+ * <code>SIDE_CHANNEL</code> the exception is passed to the side channel consumer. Failures to read
+ * the stream, and exceptions thrown by the side channel or by <code>onNext</code>, are signalled
+ * with <code>onError</code>.
+ * </p>
+ *
+ * <p>
+ * Calling the publisher can look like this:
+ *
+ * <pre>
+ * {@code
+ * Flow.Publisher<Integer> numbers = new ProfilePublisher<>(Input.INTEGER, in, 0, 100)
+ *     .withSideChannel(rejected -> log.warn(rejected.getMessage()));
+ * }
+ * </pre>
+ * </p>
+ *
+ * <p>
+ * The input stream can only be read once, so the publisher accepts a single subscriber. The
+ * stream is closed when the input completes, fails or the subscription is cancelled.
+ * </p>
+ *
+ * @param <T> the type of the published values
+ * @see main.input.Profile
+ * @see main.input.ErrorPolicy
+ */
+public class ProfilePublisher<T> implements Flow.Publisher<T> {
+  private static final Executor DEFAULT_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+    Thread thread = new Thread(runnable, "profile-publisher");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private final InputStream in;
+  private final LineParser<T> parser;
+  private final AtomicBoolean subscribed = new AtomicBoolean();
+
+  private ErrorPolicy policy = ErrorPolicy.SKIP;
+  private Consumer<? super InputRejectedException> sideChannel = e -> { };
+  private Executor executor = DEFAULT_EXECUTOR;
+
+  /**
+   * Constructs a new publisher that parses the lines of the stream with the profile.
+   *
+   * @param profile the profile to parse the lines with
+   * @param in the stream to read lines from
+   */
+  public ProfilePublisher(Profile<T> profile, InputStream in) {
+    this.in = in;
+    this.parser = new LineParser<>(profile);
+  }
+
+  /**
+   * Constructs a new publisher that parses the lines of the stream with the profile and rejects
+   * values that are not in the range according to the profile range check.
+   *
+   * @param profile the profile to parse the lines with
+   * @param in the stream to read lines from
+   * @param min the minimum value according to the profile range check
+   * @param max the maximum value according to the profile range check
+   */
+  public ProfilePublisher(Profile<T> profile, InputStream in, int min, int max) {
+    this.in = in;
+    this.parser = new LineParser<>(profile, min, max);
+  }
+
+  /**
+   * Sets the policy for rejected lines.
+   *
+   * @param policy the error policy
+   * @return this publisher
+   */
+  public ProfilePublisher<T> withErrorPolicy(ErrorPolicy policy) {
+    this.policy = policy;
+    return this;
+  }
+
+  /**
+   * Passes rejected lines to the given consumer. This sets the error policy to
+   * <code>SIDE_CHANNEL</code>.
+   *
+   * @param sideChannel the consumer of rejected lines
+   * @return this publisher
+   */
+  public ProfilePublisher<T> withSideChannel(
+      Consumer<? super InputRejectedException> sideChannel) {
+    this.sideChannel = sideChannel;
+    this.policy = ErrorPolicy.SIDE_CHANNEL;
+    return this;
+  }
+
+  /**
+   * Sets the executor used to read the stream and signal the subscriber.
+   *
+   * @param executor the executor
+   * @return this publisher
+   */
+  public ProfilePublisher<T> withExecutor(Executor executor) {
+    this.executor = executor;
+    return this;
+  }
+
+  @Override
+  public void subscribe(Flow.Subscriber<? super T> subscriber) {
+    if (subscriber == null) {
+      throw new NullPointerException("subscriber");
+    }
+    if (!subscribed.compareAndSet(false, true)) {
+      subscriber.onSubscribe(new Flow.Subscription() {
+        @Override
+        public void request(long n) {
+        }
+
+        @Override
+        public void cancel() {
+        }
+      });
+      subscriber.onError(
+          new IllegalStateException("ProfilePublisher allows a single subscriber"));
+      return;
+    }
+    new LineSubscription(subscriber).start();
+  }
+
+  /**
+   * The subscription of the single subscriber. The lines are read in a drain loop that runs on
+   * the executor while there is demand. The work counter ensures that only one drain loop runs at
+   * a time, and that demand added while the loop is finishing is not lost.
+   */
+  private final class LineSubscription implements Flow.Subscription, Runnable {
+    private final Flow.Subscriber<? super T> subscriber;
+    private final LineReader lines = new LineReader(in);
+    private final AtomicLong demand = new AtomicLong();
+    private final AtomicInteger work = new AtomicInteger();
+    private volatile boolean cancelled;
+    private volatile Throwable invalidRequest;
+    private boolean done;
+
+    private LineSubscription(Flow.Subscriber<? super T> subscriber) {
+      this.subscriber = subscriber;
+    }
+
+    private void start() {
+      subscriber.onSubscribe(this);
+      schedule();
+    }
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        invalidRequest =
+            new IllegalArgumentException("Illegal request: " + n + " , must be positive");
+      } else {
+        demand.getAndAccumulate(n, (a, b) -> a + b < 0 ? Long.MAX_VALUE : a + b);
+      }
+      schedule();
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      schedule();
+    }
+
+    private void schedule() {
+      if (work.getAndIncrement() == 0) {
+        executor.execute(this);
+      }
+    }
+
+    @Override
+    public void run() {
+      int missed = 1;
+      do {
+        try {
+          drain();
+        } catch (RuntimeException e) {
+          // The subscriber threw from a terminal signal, there is nothing left to signal
+          finish();
+        }
+        missed = work.addAndGet(-missed);
+      } while (missed != 0);
+    }
+
+    private void drain() {
+      if (done) {
+        return;
+      }
+      if (cancelled) {
+        finish();
+        return;
+      }
+      if (invalidRequest != null) {
+        finish();
+        subscriber.onError(invalidRequest);
+        return;
+      }
+      // Terminal signals are sent outside the try, so a subscriber throwing from onComplete or
+      // onError is not signalled a second time
+      Throwable error = null;
+      boolean complete = false;
+      try {
+        while (demand.get() > 0 && !cancelled) {
+          if (!lines.next()) {
+            complete = true;
+            break;
+          }
+          T parsed;
+          try {
+            parsed = parser.parse(lines);
+          } catch (InputRejectedException e) {
+            if (policy == ErrorPolicy.SIGNAL_ERROR) {
+              error = e;
+              break;
+            }
+            if (policy == ErrorPolicy.SIDE_CHANNEL) {
+              sideChannel.accept(e);
+            }
+            continue;
+          }
+          demand.decrementAndGet();
+          subscriber.onNext(parsed);
+        }
+      } catch (IOException | RuntimeException e) {
+        // A throwing side channel or subscriber must not leave the work counter raised
+        error = e;
+      }
+      if (error != null) {
+        finish();
+        subscriber.onError(error);
+      } else if (complete) {
+        finish();
+        subscriber.onComplete();
+      } else if (cancelled) {
+        finish();
+      }
+    }
+
+    private void finish() {
+      done = true;
+      try {
+        lines.close();
+      } catch (IOException e) {
+        // The input is finished either way, there is nothing left to signal
+      }
+    }
+  }
+}
@@ -3,11 +3,17 @@ package main;
 
 import static main.Validate.makeCheck;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.util.Arrays;
+import java.util.LinkedList;
 import java.util.List;
 import main.Validate.CheckArgument;
 import main.Validate.CheckArgumentSimple;
+import main.Validate.Failure;
 import org.junit.Test;
 
 /**
@@ -142,5 +148,160 @@ public class TestValidate {
     // Act
     Validate.that(name, check2, message, argumentsNegative);
   }
-  
-}
\ No newline at end of file
+
+  @Test
+  public void testThat_9_expected() {
+    // Act
+    Integer result = Validate.that(check, arguments.toArray(new Integer[0]));
+
+    // Assert
+    assertEquals(arguments.get(0), result);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testThat_9_negative() {
+    // Act
+    Validate.that(check, argumentsNegative.toArray(new Integer[0]));
+  }
+
+  @Test
+  public void testThat_10_expected() {
+    // Act
+    Integer result = Validate.that(name, check, arguments.toArray(new Integer[0]));
+
+    // Assert
+    assertEquals(arguments.get(0), result);
+  }
+
+  @Test
+  public void testThat_10_negative() {
+    try {
+      // Act
+      Validate.that(name, check, argumentsNegative.toArray(new Integer[0]));
+      fail();
+    } catch (IllegalArgumentException e) {
+      // Assert
+      assertEquals("Illegal argument 'argument'[2]: -3", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testThat_7_message() {
+    try {
+      // Act
+      Validate.that(name, check2, new LinkedList<>(argumentsNegative));
+      fail();
+    } catch (IllegalArgumentException e) {
+      // Assert
+      assertEquals("Illegal argument 'argument'[2]: -3", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testFindFailure_expected() {
+    // Act
+    Failure<Integer> result = check2.findFailure(arguments);
+
+    // Assert
+    assertNull(result);
+  }
+
+  @Test
+  public void testFindFailure_negative() {
+    // Act
+    Failure<Integer> result = check2.findFailure(new LinkedList<>(argumentsNegative));
+
+    // Assert
+    assertEquals(2, result.getIndex());
+    assertEquals(Integer.valueOf(-3), result.getValue());
+  }
+
+  @Test
+  public void testIsOneOf_dense() {
+    // Act
+    CheckArgumentSimple<Integer> result = Validate.isOneOf(1, 2, 3, 5, 8);
+
+    // Assert
+    assertTrue(result.test(5));
+    assertFalse(result.test(4));
+    assertFalse(result.test(-1));
+    assertFalse(result.test(null));
+  }
+
+  @Test
+  public void testIsOneOf_sparse() {
+    // Arrange
+    int[] values = new int[100];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = i * 1_000_003;
+    }
+
+    // Act
+    CheckArgumentSimple<Integer> result = Validate.isOneOf(values);
+
+    // Assert
+    assertTrue(result.test(42 * 1_000_003));
+    assertFalse(result.test(42));
+    assertFalse(result.test(1_000_003 + 1));
+  }
+
+  @Test
+  public void testIsOneOf_long() {
+    // Act
+    CheckArgumentSimple<Long> result = Validate.isOneOf(Long.MIN_VALUE, 0L, Long.MAX_VALUE);
+
+    // Assert
+    assertTrue(result.test(Long.MAX_VALUE));
+    assertFalse(result.test(1L));
+  }
+
+  @Test
+  public void testIsOneOf_string() {
+    // Act
+    CheckArgumentSimple<String> result = Validate.isOneOf("Aa", "NO", "SE", "DK", "FI");
+
+    // Assert
+    assertTrue(result.test("NO"));
+    assertFalse(result.test("BB"));
+    assertFalse(result.test(null));
+  }
+
+  @Test
+  public void testIsOneOf_equalHashCodes() {
+    // Arrange
+    String[] values = new String[5000];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = "code-" + i;
+    }
+    values[0] = "AaAa";
+    values[1] = "BBBB";
+    values[2] = "AaBB";
+
+    // Act
+    CheckArgumentSimple<String> result = Validate.isOneOf(values);
+
+    // Assert
+    for (String value : values) {
+      assertTrue(result.test(value));
+    }
+    assertFalse(result.test("BBAa"));
+    assertFalse(result.test("code-5000"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIsOneOf_negative() {
+    // Act
+    Validate.that("US", Validate.isOneOf("NO", "SE", "DK"));
+  }
+
+  @Test
+  public void testIsNoneOf_expected() {
+    // Act
+    String result = Validate.that("US", Validate.isNoneOf("NO", "SE", "DK"));
+
+    // Assert
+    assertEquals("US", result);
+    assertFalse(Validate.isNoneOf(1, 2, 3).test(2));
+    assertTrue(Validate.isNoneOf(1L, 2L).test(3L));
+  }
+}
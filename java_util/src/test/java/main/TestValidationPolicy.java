@@ -0,0 +1,184 @@
+package main;
+
+import static main.Validate.makeCheck;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import main.Validate.CheckArgument;
+import main.ValidationPolicy.Mode;
+import org.junit.Test;
+
+/**
+ * Test class for ValidationPolicy.
+ */
+public class TestValidationPolicy {
+  // Arrange
+  List<Integer> arguments = Arrays.asList(1, 2, -3, 4, 5, 6);
+  CheckArgument<Integer> check = makeCheck(arg -> arg > 0);
+
+  @Test
+  public void testParse_expected() {
+    // Act
+    Mode result = Mode.parse(" Sampled_Elements ", Mode.ALWAYS);
+
+    // Assert
+    assertEquals(Mode.SAMPLED_ELEMENTS, result);
+  }
+
+  @Test
+  public void testParse_null() {
+    // Act
+    Mode result = Mode.parse(null, Mode.OFF);
+
+    // Assert
+    assertEquals(Mode.OFF, result);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testParse_negative() {
+    // Act
+    Mode.parse("sometimes", Mode.ALWAYS);
+  }
+
+  @Test
+  public void testShouldCheck_expected() {
+    // Assert
+    assertTrue(ValidationPolicy.shouldCheck(Mode.ALWAYS));
+    assertFalse(ValidationPolicy.shouldCheck(Mode.OFF));
+  }
+
+  @Test
+  public void testShouldCheck_sampled() {
+    // Act
+    int checked = 0;
+    for (int i = 0; i < ValidationPolicy.SAMPLE_INTERVAL * 1000; i++) {
+      if (ValidationPolicy.shouldCheck(Mode.SAMPLED)) {
+        checked++;
+      }
+    }
+
+    // Assert
+    assertTrue(checked >= 800 && checked <= 1250);
+  }
+
+  @Test
+  public void testShouldCheck_lockstep() {
+    // Act
+    int first = 0;
+    int second = 0;
+    for (int i = 0; i < ValidationPolicy.SAMPLE_INTERVAL * 1000; i++) {
+      if (ValidationPolicy.shouldCheck(Mode.SAMPLED)) {
+        first++;
+      }
+      if (ValidationPolicy.shouldCheck(Mode.SAMPLED)) {
+        second++;
+      }
+    }
+
+    // Assert
+    assertTrue(first >= 250);
+    assertTrue(second >= 250);
+  }
+
+  @Test
+  public void testReadOverrides_expected() {
+    // Arrange
+    Properties properties = new Properties();
+    properties.setProperty("validate.mode", "off");
+    properties.setProperty("validate.mode.index", "sampled");
+
+    // Act
+    Map<String, Mode> result = ValidationPolicy.readOverrides(properties);
+
+    // Assert
+    assertEquals(1, result.size());
+    assertEquals(Mode.SAMPLED, result.get("index"));
+  }
+
+  @Test
+  public void testFindFailureSampled_expected() {
+    // Assert
+    assertNull(check.findFailure(arguments, 1, 2));
+    assertNull(check.findFailure(arguments, 1, 3));
+  }
+
+  @Test
+  public void testFindFailureSampled_negative() {
+    // Assert
+    assertNotNull(check.findFailure(arguments, 2, 3));
+    assertNotNull(check.findFailure(arguments, 0, 1));
+  }
+
+  @Test
+  public void testReadMode_negative() {
+    // Arrange
+    Properties properties = new Properties();
+    properties.setProperty("validate.mode", "sampeld");
+    properties.setProperty("validate.mode.index", "of");
+
+    // Act
+    Mode result = ValidationPolicy.readMode(properties, "validate.mode");
+    Map<String, Mode> overrides = ValidationPolicy.readOverrides(properties);
+
+    // Assert
+    assertEquals(Mode.ALWAYS, result);
+    assertEquals(Mode.ALWAYS, overrides.get("index"));
+  }
+
+  @Test
+  public void testReadInterval_expected() {
+    // Arrange
+    Properties properties = new Properties();
+    properties.setProperty("validate.sample.interval", "64");
+
+    // Act
+    int result = ValidationPolicy.readInterval(properties);
+
+    // Assert
+    assertEquals(64, result);
+  }
+
+  @Test
+  public void testReadInterval_negative() {
+    // Arrange
+    Properties properties = new Properties();
+
+    // Act & Assert
+    for (String value : new String[] { "abc", "0", "-4", "1.5" }) {
+      properties.setProperty("validate.sample.interval", value);
+      assertEquals(16, ValidationPolicy.readInterval(properties));
+    }
+  }
+
+  @Test
+  public void testReadFraction_expected() {
+    // Arrange
+    Properties properties = new Properties();
+    properties.setProperty("validate.sample.fraction", "0.25");
+
+    // Act
+    double result = ValidationPolicy.readFraction(properties);
+
+    // Assert
+    assertEquals(0.25, result, 0);
+  }
+
+  @Test
+  public void testReadFraction_negative() {
+    // Arrange
+    Properties properties = new Properties();
+
+    // Act & Assert
+    for (String value : new String[] { "abc", "NaN", "1.5", "0", "-0.5" }) {
+      properties.setProperty("validate.sample.fraction", value);
+      assertEquals(0, ValidationPolicy.readFraction(properties), 0);
+    }
+  }
+}
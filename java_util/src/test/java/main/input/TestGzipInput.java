@@ -0,0 +1,210 @@
+package main.input;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test class for GzipInput.
+ */
+public class TestGzipInput {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * Writes the numbers from 1 to <code>lines</code>, one per line, as the given number of gzip
+   * members.
+   */
+  private Path write(int members, int lines) throws IOException {
+    Path file = folder.newFile().toPath();
+    int line = 0;
+    try (OutputStream out = Files.newOutputStream(file)) {
+      for (int m = 1; m <= members; m++) {
+        ByteArrayOutputStream member = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(member)) {
+          StringBuilder content = new StringBuilder();
+          while (line < lines * m / members) {
+            content.append(++line).append('\n');
+          }
+          gzip.write(content.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        member.writeTo(out);
+      }
+    }
+    return file;
+  }
+
+  private void assertNumbers(Path file, int lines) throws IOException {
+    // Act
+    List<Integer> result = new ArrayList<>();
+    long count;
+    try (GzipInput input = new GzipInput(file, 4, 4)) {
+      count = input.parse(Input.INTEGER, result::add);
+    }
+
+    // Assert
+    assertEquals(lines, count);
+    for (int i = 0; i < lines; i++) {
+      assertEquals(Integer.valueOf(i + 1), result.get(i));
+    }
+  }
+
+  @Test
+  public void testParse_singleMember() throws IOException {
+    assertNumbers(write(1, 300_000), 300_000);
+  }
+
+  @Test
+  public void testParse_multipleMembers() throws IOException {
+    assertNumbers(write(100, 300_000), 300_000);
+  }
+
+  @Test
+  public void testParse_rejected() throws IOException {
+    // Arrange
+    Path file = folder.newFile().toPath();
+    try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+      out.write("1\nx\n3\n".getBytes(StandardCharsets.UTF_8));
+    }
+    List<Long> rejected = new ArrayList<>();
+
+    // Act
+    try (GzipInput input = new GzipInput(file)) {
+      input.parse(Input.INTEGER, value -> { }, e -> rejected.add(e.getLineNumber()));
+    }
+
+    // Assert
+    assertEquals(1, rejected.size());
+    assertEquals(Long.valueOf(2), rejected.get(0));
+  }
+
+  @Test(expected = IOException.class)
+  public void testParse_negative() throws IOException {
+    // Arrange
+    Path file = folder.newFile().toPath();
+    Files.write(file, "1\n2\n".getBytes(StandardCharsets.UTF_8));
+
+    // Act
+    try (GzipInput input = new GzipInput(file)) {
+      input.parse(Input.INTEGER, value -> { });
+    }
+  }
+
+  @Test(expected = ZipException.class)
+  public void testParse_corruptMember() throws IOException {
+    // Arrange
+    Path file = folder.newFile().toPath();
+    ByteArrayOutputStream content = new ByteArrayOutputStream();
+    for (String member : new String[] { "1\n2\n", "3\n4\n" }) {
+      try (GZIPOutputStream gzip = new GZIPOutputStream(content)) {
+        gzip.write(member.getBytes(StandardCharsets.UTF_8));
+      }
+    }
+    byte[] bytes = content.toByteArray();
+    bytes[bytes.length - 8] ^= 1; // Flip a bit in the CRC of the second member
+    Files.write(file, bytes);
+
+    // Act
+    try (GzipInput input = new GzipInput(file, 2, 2)) {
+      input.parse(Input.INTEGER, value -> { });
+    }
+  }
+
+  /**
+   * Returns a single gzip member with the given content.
+   */
+  private static byte[] member(String content) throws IOException {
+    ByteArrayOutputStream member = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(member)) {
+      gzip.write(content.getBytes(StandardCharsets.UTF_8));
+    }
+    return member.toByteArray();
+  }
+
+  private void parse(byte[]... parts) throws IOException {
+    Path file = folder.newFile().toPath();
+    try (OutputStream out = Files.newOutputStream(file)) {
+      for (byte[] part : parts) {
+        out.write(part);
+      }
+    }
+    try (GzipInput input = new GzipInput(file, 2, 2)) {
+      input.parse(Input.INTEGER, value -> { });
+    }
+  }
+
+  @Test(expected = EOFException.class)
+  public void testParse_empty() throws IOException {
+    // Act
+    parse();
+  }
+
+  @Test(expected = EOFException.class)
+  public void testParse_truncatedHeader() throws IOException {
+    // Act
+    parse(member("1\n2\n"), Arrays.copyOf(member("3\n"), 6));
+  }
+
+  @Test(expected = ZipException.class)
+  public void testParse_oversizedHeader() throws IOException {
+    // Arrange
+    byte[] second = member("3\n");
+    byte[] name = new byte[GzipInput.MEMBER_LIMIT / 4];
+    Arrays.fill(name, (byte) 'a');
+    name[name.length - 1] = 0;
+    second[3] |= 8; // A file name follows the fixed header
+
+    // Act
+    parse(
+        member("1\n2\n"), Arrays.copyOf(second, 10), name,
+        Arrays.copyOfRange(second, 10, second.length));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testGzipInput_negative() throws IOException {
+    // Arrange
+    Path file = folder.newFile().toPath();
+
+    // Act
+    new GzipInput(file, 1, 0).close();
+  }
+
+  @Test
+  public void testClose_early() throws IOException {
+    // Arrange
+    Path file = write(1, 2_000_000);
+
+    // Act
+    for (int i = 0; i < 3; i++) {
+      try (GzipInput input = new GzipInput(file, 2, 2)) {
+        input.parse(Input.INTEGER, value -> {
+          throw new IllegalStateException("stop");
+        });
+        fail();
+      } catch (IllegalStateException e) {
+        // Expected, the input is closed before it is read to the end
+      }
+    }
+
+    // Assert
+    for (Thread thread : Thread.getAllStackTraces().keySet()) {
+      assertFalse(thread.getName().equals("gzip-coordinator") && thread.isAlive());
+    }
+  }
+}
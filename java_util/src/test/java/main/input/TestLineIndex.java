@@ -0,0 +1,147 @@
+package main.input;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test class for LineIndex.
+ */
+public class TestLineIndex {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  // Arrange
+  Path file;
+  LineIndex index;
+
+  /**
+   * Writes a file with the numbers 1 to 1000 on separate lines, where line 500 is invalid.
+   */
+  @Before
+  public void setUp() throws IOException {
+    StringBuilder content = new StringBuilder();
+    for (int i = 1; i <= 1000; i++) {
+      content.append(i == 500 ? "x" : Integer.toString(i)).append(i % 3 == 0 ? "\r\n" : "\n");
+    }
+    file = folder.newFile("numbers.txt").toPath();
+    Files.write(file, content.toString().getBytes(StandardCharsets.UTF_8));
+    index = LineIndex.build(file, 16);
+  }
+
+  @Test
+  public void testBuild_expected() {
+    // Assert
+    assertEquals(1000, index.getLineCount());
+    assertEquals(16, index.getInterval());
+  }
+
+  @Test
+  public void testParse_expected() throws IOException {
+    // Act
+    List<Integer> result = index.parse(file, Input.INTEGER, 798, 4);
+
+    // Assert
+    assertEquals(Arrays.asList(798, 799, 800, 801), result);
+  }
+
+  @Test
+  public void testParse_end() throws IOException {
+    // Act
+    List<Integer> result = index.parse(file, Input.INTEGER, 999, 10);
+
+    // Assert
+    assertEquals(Arrays.asList(999, 1000), result);
+  }
+
+  @Test
+  public void testParse_rejected() throws IOException {
+    // Arrange
+    List<Long> rejected = new ArrayList<>();
+
+    // Act
+    List<Integer> result =
+        index.parse(file, Input.INTEGER, 499, 3, e -> rejected.add(e.getLineNumber()));
+
+    // Assert
+    assertEquals(Arrays.asList(499, 501), result);
+    assertEquals(Arrays.asList(500L), rejected);
+  }
+
+  @Test(expected = InputRejectedException.class)
+  public void testParse_negative() throws IOException {
+    // Act
+    index.parse(file, Input.INTEGER, 490, 20);
+  }
+
+  @Test
+  public void testLoad_expected() throws IOException {
+    // Arrange
+    Path saved = folder.newFile("numbers.idx").toPath();
+    index.save(saved);
+
+    // Act
+    LineIndex result = LineIndex.load(saved);
+
+    // Assert
+    assertEquals(index.getLineCount(), result.getLineCount());
+    assertEquals(Arrays.asList(33), result.parse(file, Input.INTEGER, 33, 1));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testParse_stale() throws IOException {
+    // Arrange
+    Files.write(file, "1\n".getBytes(StandardCharsets.UTF_8));
+
+    // Act
+    index.parse(file, Input.INTEGER, 1, 1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testParse_staleSameSize() throws IOException {
+    // Arrange
+    byte[] content = Files.readAllBytes(file);
+    content[0] = '9';
+    Files.write(file, content);
+    Files.setLastModifiedTime(file, FileTime.fromMillis(index.getLastModified() + 1000));
+
+    // Act
+    index.parse(file, Input.INTEGER, 1, 1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testParse_firstLine() throws IOException {
+    // Act
+    index.parse(file, Input.INTEGER, 1002, 1);
+  }
+
+  @Test(expected = IOException.class)
+  public void testLoad_negative() throws IOException {
+    // Arrange
+    Path saved = folder.newFile("broken.idx").toPath();
+    try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(saved))) {
+      out.writeInt(0x4C494458);
+      out.writeInt(2);
+      out.writeInt(0);
+      out.writeLong(10);
+      out.writeLong(100);
+      out.writeLong(0);
+      out.writeInt(-1);
+    }
+
+    // Act
+    LineIndex.load(saved);
+  }
+}
@@ -0,0 +1,139 @@
+package main.input;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import org.junit.Test;
+
+/**
+ * Test class for ParseCache and the cached parse methods of Profile.
+ */
+public class TestParseCache {
+  // Arrange
+  Profile<String> profile = Input.STRING.withCache(16);
+  char[] buffer = "abcabc".toCharArray();
+
+  @Test
+  public void testParse_hit() {
+    // Act
+    String first = profile.parse(buffer, 0, 3);
+    String second = profile.parse(buffer, 3, 3);
+    String third = profile.parse(new StringBuilder("abc"));
+    String fourth = profile.parse("abc");
+
+    // Assert
+    assertEquals("abc", first);
+    assertSame(first, second);
+    assertSame(first, third);
+    assertSame(first, fourth);
+  }
+
+  @Test
+  public void testFind_expected() {
+    // Arrange
+    ParseCache<String> cache = new ParseCache<>(16);
+
+    // Act
+    String miss = cache.find(buffer, 0, 3);
+    String parsed = cache.get(buffer, 0, 3, String::new);
+    String hit = cache.find(buffer, 3, 3);
+
+    // Assert
+    assertEquals(null, miss);
+    assertSame(parsed, hit);
+  }
+
+  @Test
+  public void testLineParser_cachedRange() {
+    // Arrange
+    LineParser<Integer> parser = new LineParser<>(Input.INTEGER.withCache(16), 0, 10);
+    char[] line = "42".toCharArray();
+    try {
+      parser.parse(line, 0, 2, 1);
+      fail();
+    } catch (InputRejectedException e) {
+      // Expected, the value is cached by the parse before the range check
+    }
+
+    // Act & Assert
+    try {
+      parser.parse(line, 0, 2, 2);
+      fail();
+    } catch (InputRejectedException e) {
+      assertEquals(2, e.getLineNumber());
+    }
+  }
+
+  @Test
+  public void testParse_longKey() {
+    // Arrange
+    ParseCache<String> cache = new ParseCache<>(16);
+    char[] token = new char[ParseCache.MAX_KEY_LENGTH + 1];
+    Arrays.fill(token, 'a');
+
+    // Act
+    String first = cache.get(token, 0, token.length, String::new);
+    String second = cache.get(new String(token), String::new);
+
+    // Assert
+    assertEquals(first, second);
+    assertNotSame(first, second);
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testGet_bounded() {
+    // Arrange
+    ParseCache<Integer> cache = new ParseCache<>(8);
+
+    // Act
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(Integer.valueOf(i), cache.get(Integer.toString(i), Integer::parseInt));
+    }
+
+    // Assert
+    assertEquals(8, cache.capacity());
+    assertTrue(cache.size() <= cache.capacity());
+  }
+
+  @Test
+  public void testGet_exception() {
+    // Arrange
+    ParseCache<Integer> cache = new ParseCache<>(8);
+    int[] calls = new int[1];
+    ParseMethod<Integer> flaky = s -> {
+      if (calls[0]++ == 0) {
+        throw new NumberFormatException(s);
+      }
+      return Integer.parseInt(s);
+    };
+
+    // Act
+    try {
+      cache.get("42", flaky);
+      fail();
+    } catch (NumberFormatException e) {
+      // Expected on the first call
+    }
+    Integer result = cache.get("42", flaky);
+
+    // Assert
+    assertEquals(Integer.valueOf(42), result);
+    assertEquals(2, calls[0]);
+  }
+
+  @Test
+  public void testWithCache_maxCapacity() {
+    // Act
+    Profile<Integer> result = Input.INTEGER.withCache(Integer.MAX_VALUE);
+
+    // Assert
+    assertTrue(result.isCached());
+    assertEquals(Integer.valueOf(7), result.parse("7"));
+    assertEquals(ParseCache.MAX_CAPACITY, new ParseCache<>(Integer.MAX_VALUE).capacity());
+  }
+}
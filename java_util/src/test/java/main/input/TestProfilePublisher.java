@@ -0,0 +1,223 @@
+package main.input;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+/**
+ * Test class for ProfilePublisher.
+ */
+public class TestProfilePublisher {
+  // Arrange
+  InputStream in = new ByteArrayInputStream(
+      "1\r\n2\nx\n30\n4".getBytes(StandardCharsets.UTF_8));
+  List<Integer> received = new ArrayList<>();
+  List<Throwable> errors = new ArrayList<>();
+  boolean[] completed = new boolean[1];
+
+  /**
+   * A subscriber that requests one value at a time.
+   */
+  Flow.Subscriber<Integer> subscriber = new Flow.Subscriber<Integer>() {
+    private Flow.Subscription subscription;
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+      subscription.request(1);
+    }
+
+    @Override
+    public void onNext(Integer item) {
+      received.add(item);
+      subscription.request(1);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      errors.add(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+      completed[0] = true;
+    }
+  };
+
+  @Test
+  public void testSubscribe_skip() {
+    // Act
+    new ProfilePublisher<>(Input.INTEGER, in, 0, 10)
+        .withExecutor(Runnable::run)
+        .subscribe(subscriber);
+
+    // Assert
+    assertEquals(Arrays.asList(1, 2, 4), received);
+    assertTrue(completed[0]);
+  }
+
+  @Test
+  public void testSubscribe_signalError() {
+    // Act
+    new ProfilePublisher<>(Input.INTEGER, in, 0, 10)
+        .withErrorPolicy(ErrorPolicy.SIGNAL_ERROR)
+        .withExecutor(Runnable::run)
+        .subscribe(subscriber);
+
+    // Assert
+    assertEquals(Arrays.asList(1, 2), received);
+    assertEquals(3, ((InputRejectedException) errors.get(0)).getLineNumber());
+  }
+
+  @Test
+  public void testSubscribe_sideChannel() {
+    // Arrange
+    List<String> rejected = new ArrayList<>();
+
+    // Act
+    new ProfilePublisher<>(Input.INTEGER, in, 0, 10)
+        .withSideChannel(e -> rejected.add(e.getLine()))
+        .withExecutor(Runnable::run)
+        .subscribe(subscriber);
+
+    // Assert
+    assertEquals(Arrays.asList(1, 2, 4), received);
+    assertEquals(Arrays.asList("x", "30"), rejected);
+    assertTrue(completed[0]);
+  }
+
+  @Test
+  public void testSubscribe_demand() {
+    // Arrange
+    List<Integer> items = new ArrayList<>();
+
+    // Act
+    new ProfilePublisher<>(Input.INTEGER, in).withExecutor(Runnable::run).subscribe(
+        new Flow.Subscriber<Integer>() {
+          @Override
+          public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(2);
+          }
+
+          @Override
+          public void onNext(Integer item) {
+            items.add(item);
+          }
+
+          @Override
+          public void onError(Throwable throwable) {
+          }
+
+          @Override
+          public void onComplete() {
+            completed[0] = true;
+          }
+        });
+
+    // Assert
+    assertEquals(Arrays.asList(1, 2), items);
+    assertEquals(false, completed[0]);
+  }
+
+  @Test
+  public void testSubscribe_sideChannelThrows() {
+    // Act
+    new ProfilePublisher<>(Input.INTEGER, in, 0, 10)
+        .withSideChannel(e -> {
+          throw new IllegalStateException("side channel failed");
+        })
+        .withExecutor(Runnable::run)
+        .subscribe(subscriber);
+
+    // Assert
+    assertEquals(Arrays.asList(1, 2), received);
+    assertEquals("side channel failed", errors.get(0).getMessage());
+    assertEquals(false, completed[0]);
+  }
+
+  @Test
+  public void testSubscribe_onCompleteThrows() {
+    // Arrange
+    List<String> signals = new ArrayList<>();
+
+    // Act
+    new ProfilePublisher<>(Input.INTEGER, in, 0, 10).withExecutor(Runnable::run).subscribe(
+        new Flow.Subscriber<Integer>() {
+          @Override
+          public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+          }
+
+          @Override
+          public void onNext(Integer item) {
+            signals.add("next " + item);
+          }
+
+          @Override
+          public void onError(Throwable throwable) {
+            signals.add("error");
+          }
+
+          @Override
+          public void onComplete() {
+            signals.add("complete");
+            throw new IllegalStateException("complete failed");
+          }
+        });
+
+    // Assert
+    assertEquals(Arrays.asList("next 1", "next 2", "next 4", "complete"), signals);
+  }
+
+  @Test
+  public void testSubscribe_defaultExecutor() throws InterruptedException {
+    // Arrange
+    CountDownLatch done = new CountDownLatch(1);
+    List<Integer> items = new ArrayList<>();
+    String[] thread = new String[1];
+
+    // Act
+    new ProfilePublisher<>(Input.INTEGER, in, 0, 10).subscribe(
+        new Flow.Subscriber<Integer>() {
+          private Flow.Subscription subscription;
+
+          @Override
+          public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+          }
+
+          @Override
+          public void onNext(Integer item) {
+            items.add(item);
+            thread[0] = Thread.currentThread().getName();
+            subscription.request(1);
+          }
+
+          @Override
+          public void onError(Throwable throwable) {
+            done.countDown();
+          }
+
+          @Override
+          public void onComplete() {
+            done.countDown();
+          }
+        });
+
+    // Assert
+    assertTrue(done.await(10, TimeUnit.SECONDS));
+    assertEquals(Arrays.asList(1, 2, 4), items);
+    assertEquals("profile-publisher", thread[0]);
+  }
+}